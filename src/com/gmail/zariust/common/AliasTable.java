@@ -0,0 +1,103 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.common;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Picks an index at random, with each index weighted, in constant time
+ * (Vose's alias method). The table is built once from the weights; index i is
+ * then picked with probability weights[i] / (sum of weights).
+ */
+public final class AliasTable {
+    private final double[] prob;
+    private final int[]    alias;
+
+    /**
+     * @param weights
+     *            The weights; negative weights count as 0. There must be at
+     *            least one and they can't all be 0.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0)
+            throw new IllegalArgumentException("No weights given.");
+        double total = 0;
+        for (double weight : weights)
+            total += Math.max(weight, 0);
+        if (!(total > 0))
+            throw new IllegalArgumentException("Weights must add up to more than 0.");
+
+        prob = new double[n];
+        alias = new int[n];
+        // scaled so that the average weight is 1
+        double[] scaled = new double[n];
+        int heaviest = 0;
+        Deque<Integer> small = new ArrayDeque<Integer>();
+        Deque<Integer> large = new ArrayDeque<Integer>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = Math.max(weights[i], 0) * n / total;
+            if (weights[i] > weights[heaviest])
+                heaviest = i;
+            if (scaled[i] < 1)
+                small.push(i);
+            else
+                large.push(i);
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            prob[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1)
+                small.push(more);
+            else
+                large.push(more);
+        }
+        // anything left over is 1 apart from rounding errors - but never
+        // pick an index with no weight
+        while (!large.isEmpty())
+            prob[large.pop()] = 1;
+        while (!small.isEmpty()) {
+            int less = small.pop();
+            if (weights[less] > 0) {
+                prob[less] = 1;
+            } else {
+                prob[less] = 0;
+                alias[less] = heaviest;
+            }
+        }
+    }
+
+    /**
+     * @return A random index, weighted as given to the constructor.
+     */
+    public int sample(Random rng) {
+        double roll = rng.nextDouble() * prob.length;
+        int column = (int) roll;
+        if (column >= prob.length) // only if rounded up
+            column = prob.length - 1;
+        return roll - column < prob[column] ? column : alias[column];
+    }
+
+    public int size() {
+        return prob.length;
+    }
+}
@@ -16,8 +16,15 @@
 
 package com.gmail.zariust.common;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Material;
 import org.bukkit.entity.Arrow;
@@ -52,22 +59,71 @@ public final class CommonEntity {
      *            - spaces, dashes and underscores are ignored, case insensitive
      * @return EntityType or null if no valid type
      */
+    // Normalized (see CommonMaterial.normalize) entity type names, sorted for
+    // prefix searches, with the matching types in the same order
+    private static final String[]                      NAMES;
+    private static final EntityType[]                  TYPES;
+    // normalized name -> types with that name, in EntityType.values() order
+    private static final Map<String, List<EntityType>> BY_NAME;
+    static {
+        Map<String, List<EntityType>> byName = new HashMap<String, List<EntityType>>();
+        for (EntityType creature : EntityType.values()) {
+            String key = CommonMaterial.normalize(creature.name());
+            List<EntityType> types = byName.get(key);
+            if (types == null) {
+                types = new ArrayList<EntityType>(1);
+                byName.put(key, types);
+            }
+            types.add(creature);
+        }
+        BY_NAME = Collections.unmodifiableMap(byName);
+
+        NAMES = new String[EntityType.values().length];
+        TYPES = new EntityType[NAMES.length];
+        List<String> sorted = new ArrayList<String>(byName.keySet());
+        Collections.sort(sorted);
+        int i = 0;
+        for (String key : sorted)
+            for (EntityType creature : byName.get(key)) {
+                NAMES[i] = key;
+                TYPES[i++] = creature;
+            }
+    }
+
+    // Previous getCreatureEntityType results (found types only)
+    private static final Map<String, EntityType>       matchCache = new ConcurrentHashMap<String, EntityType>();
+    private static final int                           MAX_CACHED = 4096;
+
     public static EntityType getCreatureEntityType(String name) {
         if (name == null || name.isEmpty())
             return null;
+        EntityType cached = matchCache.get(name);
+        if (cached != null)
+            return cached;
+        EntityType matched = lookupCreatureEntityType(name);
+        if (matched != null) {
+            if (matchCache.size() >= MAX_CACHED)
+                matchCache.clear();
+            matchCache.put(name, matched);
+        }
+        return matched;
+    }
+
+    private static EntityType lookupCreatureEntityType(String name) {
         String originalName = name;
-        name = name.split("@")[0].toLowerCase(); // remove data value, if any,
-                                                 // and make **lowercase** (keep
-                                                 // in mind below)
-        name = name.replaceAll("[\\s-_]", ""); // remove spaces, dashes &
-                                               // underscores
+        name = name.split("@")[0]; // remove data value, if any
+        name = CommonMaterial.normalize(name); // make **lowercase** (keep in
+                                               // mind below) & remove spaces,
+                                               // dashes & underscores
 
         boolean isEntity = false;
-        if (name.matches("^entity.*"))
+        if (name.startsWith("entity"))
             isEntity = true;
 
-        name = name.replaceAll("^creature", "");
-        name = name.replaceAll("^entity", "");
+        if (name.startsWith("creature"))
+            name = name.substring("creature".length());
+        if (name.startsWith("entity"))
+            name = name.substring("entity".length());
 
         // Log.logInfo("Checking creature '"+name+"' (original name: '"+originalName+"')",
         // Verbosity.HIGH);
@@ -81,6 +137,27 @@ public final class CommonEntity {
         name = name.replace("lavaslime", "magmacube");
         name = name.replace("magmaslime", "magmacube");
 
+        // Names are matched as a regex below, plain names can use the indexes
+        if (isPlainName(name)) {
+            List<EntityType> exact = BY_NAME.get(name);
+            if (exact != null)
+                for (EntityType creature : exact)
+                    if (creature.isAlive() || isEntity)
+                        return creature;
+            // a name starting with ";" matches any type starting with the
+            // rest of the name, if there's only one
+            if (!name.startsWith(";"))
+                return null;
+            String prefix = name.substring(1);
+            int from = Arrays.binarySearch(NAMES, prefix);
+            if (from < 0)
+                from = -from - 1;
+            int to = from;
+            while (to < NAMES.length && NAMES[to].startsWith(prefix))
+                to++;
+            return to - from == 1 ? TYPES[from] : null;
+        }
+
         Set<EntityType> possibleMatches = new HashSet<EntityType>();
 
         for (EntityType creature : EntityType.values()) {
@@ -102,6 +179,18 @@ public final class CommonEntity {
         return null;
     }
 
+    private static boolean isPlainName(String name) {
+        if (name.isEmpty())
+            return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')
+                    && !(c == ';' && i == 0))
+                return false;
+        }
+        return true;
+    }
+
     public static Material getVehicleType(Entity e) {
         if (e instanceof Boat)
             return Material.BOAT;
@@ -18,7 +18,9 @@ package com.gmail.zariust.common;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.DyeColor;
 import org.bukkit.GrassSpecies;
@@ -224,7 +226,89 @@ public final class CommonMaterial {
         ALIASES = Collections.unmodifiableMap(aMap);
     }
 
+    // Material & alias names with case, spaces, dashes & underscores removed
+    // (see normalize()) - built once as Material never changes at runtime
+    private static final Map<String, Material> MATERIALS;
+    private static final Map<String, String>   NORMALIZED_ALIASES;
+    static {
+        Map<String, Material> mMap = new HashMap<String, Material>();
+        for (Material loopMat : Material.values())
+            mMap.put(normalize(loopMat.name()), loopMat);
+        MATERIALS = Collections.unmodifiableMap(mMap);
+
+        Map<String, String> aMap = new HashMap<String, String>();
+        for (Map.Entry<String, String> alias : ALIASES.entrySet())
+            aMap.put(normalize(alias.getKey()), normalize(alias.getValue()));
+        NORMALIZED_ALIASES = Collections.unmodifiableMap(aMap);
+    }
+
+    // Previous matchMaterial results, as the same names are looked up many
+    // times during config loading
+    private static final Map<String, Material> matchCache = new ConcurrentHashMap<String, Material>();
+    private static final int                   MAX_CACHED = 4096;
+
+    // Aliases for substituteAlias()
+    // note: aliases (on left) need to be uppercase with no spaces, dashes or
+    // underscores
+    private static final Map<String, String>   DROP_ALIASES;
+    static {
+        Map<String, String> a2Map = new LinkedHashMap<String, String>();
+        a2Map.put("ANYSHOVEL", "ANY_SPADE");
+        a2Map.put("LAPISLAZULI", "DYE@BLUE");
+
+        // TODO: DISABLED until issues it causes with LAPIS_ORE are fixed
+        // (note: substituteAlias only checks if the name starts with the
+        // alias, so this would need a regex check)
+        //a2Map.put("LAPIS([^A-Z]?)", "DYE@BLUE$1"); // only lapis as a singular word, otherwise lapis_ore becomes lapisdye@blueore
+
+        a2Map.put("BONEMEAL", "DYE@WHITE");
+        a2Map.put("COCOABEANS", "DYE@BROWN");
+
+        a2Map.put("SKELETONHEAD", "SKULL_ITEM@0");
+        a2Map.put("SKELETONSKULL", "SKULL_ITEM@0");
+        a2Map.put("ZOMBIEHEAD", "SKULL_ITEM@1");
+        a2Map.put("WITHERHEAD", "SKULL_ITEM@2");
+        a2Map.put("PLAYERHEAD", "SKULL_ITEM@3");
+        a2Map.put("CREEPERHEAD", "SKULL_ITEM@4");
+        a2Map.put("HEAD", "SKULL_ITEM@3");
+
+        a2Map.put("WITHERSKELETON", "SKELETON@WITHER");
+        DROP_ALIASES = Collections.unmodifiableMap(a2Map);
+    }
+
+    /**
+     * Lower case the name and remove any spaces, dashes & underscores - the
+     * same as <code>name.toLowerCase().replaceAll("[\\s-_]", "")</code>.
+     */
+    static String normalize(String name) {
+        name = name.toLowerCase();
+        StringBuilder result = null;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean skip = c == ' ' || c == '-' || c == '_' || c == '\t'
+                    || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+            if (skip && result == null)
+                result = new StringBuilder(name.length()).append(name, 0, i);
+            else if (!skip && result != null)
+                result.append(c);
+        }
+        return result == null ? name : result.toString();
+    }
+
     public static Material matchMaterial(String mat) {
+        Material cached = matchCache.get(mat);
+        if (cached != null)
+            return cached;
+        Material matched = lookupMaterial(mat);
+        if (matched != null) {
+            if (matchCache.size() >= MAX_CACHED)
+                matchCache.clear();
+            matchCache.put(mat, matched);
+        }
+        return matched;
+    }
+
+    private static Material lookupMaterial(String mat) {
         // Aliases defined here override those in Material; the only example
         // here is WOODEN_DOOR
         // You can remove it if you prefer not to break the occasional config
@@ -240,21 +324,13 @@ public final class CommonMaterial {
             return Material.getMaterial(Integer.valueOf(mat));
         }
         // CommonMaterial material = enumValue(CommonMaterial.class, mat);
-        mat = mat.toLowerCase().replaceAll("[\\s-_]", "");
+        mat = normalize(mat);
 
-        for (String loopAlias : ALIASES.keySet()) {
-            if (mat.equalsIgnoreCase(loopAlias.toLowerCase().replaceAll(
-                    "[\\s-_]", "")))
-                mat = ALIASES.get(loopAlias).toLowerCase()
-                        .replaceAll("[\\s-_]", "");
-        }
+        String alias = NORMALIZED_ALIASES.get(mat);
+        if (alias != null)
+            mat = alias;
 
-        Material matchedMat = null;
-        for (Material loopMat : Material.values()) {
-            if (mat.equalsIgnoreCase(loopMat.name().toLowerCase()
-                    .replaceAll("[\\s-_]", "")))
-                matchedMat = loopMat;
-        }
+        Material matchedMat = MATERIALS.get(mat);
 
         if (matchedMat == null) {
             Material defaultMat = Material.getMaterial(mat);
@@ -480,37 +556,14 @@ public final class CommonMaterial {
     }
 
     public static String substituteAlias(String drop) {
-        Map<String, String> a2Map = new HashMap<String, String>();
-
-        // note: aliases (on left) need to be uppercase with no spaces, dashes or underscores
-        a2Map.put("ANYSHOVEL", "ANY_SPADE");
-        a2Map.put("LAPISLAZULI", "DYE@BLUE");
-        
-        // TODO: DISABLED until issues it causes with LAPIS_ORE are fixed
-        //a2Map.put("LAPIS([^A-Z]?)", "DYE@BLUE$1"); // only lapis as a singular word, otherwise lapis_ore becomes lapisdye@blueore
-        
-        a2Map.put("BONEMEAL", "DYE@WHITE");
-        a2Map.put("COCOABEANS", "DYE@BROWN");
-
-        a2Map.put("SKELETONHEAD", "SKULL_ITEM@0");
-        a2Map.put("SKELETONSKULL", "SKULL_ITEM@0");
-        a2Map.put("ZOMBIEHEAD", "SKULL_ITEM@1");
-        a2Map.put("WITHERHEAD", "SKULL_ITEM@2");
-        a2Map.put("PLAYERHEAD", "SKULL_ITEM@3");
-        a2Map.put("CREEPERHEAD", "SKULL_ITEM@4");
-        a2Map.put("HEAD", "SKULL_ITEM@3");
-
-        a2Map.put("WITHERSKELETON", "SKELETON@WITHER");
-
         String tmpDrop = drop.toUpperCase().replaceAll("[ _-]", "");
-        for (String alias : a2Map.keySet()) {
-            if (tmpDrop.toUpperCase().replaceAll("[ _-]", "")
-                    .matches(alias + ".*")) {
+        for (String alias : DROP_ALIASES.keySet()) {
+            if (tmpDrop.startsWith(alias)) {
                 String[] nameSplit = tmpDrop.split("~", 2);
                 tmpDrop = nameSplit[0].replaceAll("@", "!");
                 String[] nameSplit2 = tmpDrop.split("!", 2);
                 tmpDrop = nameSplit2[0];
-                tmpDrop = tmpDrop.toUpperCase().replaceAll("[ _-]", "").replaceAll("(?i)" + alias, a2Map.get(alias));
+                tmpDrop = tmpDrop.toUpperCase().replaceAll("[ _-]", "").replaceAll("(?i)" + alias, DROP_ALIASES.get(alias));
                 if (nameSplit.length > 1) tmpDrop += "~"+nameSplit[1];
                 if (nameSplit2.length > 1) tmpDrop += "!"+nameSplit2[1];
                 return tmpDrop; // we only want to replace the first found result,
@@ -523,8 +576,7 @@ public final class CommonMaterial {
 
     public static boolean fuzzyMatchString(String one, String two) {
 
-        if (one.toLowerCase().replaceAll("[\\s-_]", "")
-                .equals(two.toLowerCase().replaceAll("[\\s-_]", "")))
+        if (normalize(one).equals(normalize(two)))
             return true;
         return false;
     }
@@ -236,13 +236,9 @@ public enum MaterialGroup {
     }
 
     public Material getOneRandom() {
-        double select = OtherDrops.rng.nextDouble() * mat.size(), cumul = 0;
-        for (Material singleMat : mat) {
-            cumul++;
-            if (select <= cumul) {
-                return singleMat;
-            }
-        }
-        return null;
+        // all weighted the same, so no need for a table
+        if (mat.isEmpty())
+            return null;
+        return mat.get(OtherDrops.rng.nextInt(mat.size()));
     }
 }
@@ -95,6 +95,7 @@ public class Dependencies {
             if (!OtherDropsConfig.globalDisableMetrics)
                 enableMetrics();
             worldGuard = (WorldGuardPlugin) getPlugin("WorldGuard");
+            RegionIndex.clear();
             logBlock = (LogBlock) getPlugin("LogBlock");
             bigBrother = (BigBrother) getPlugin("BigBrother");
         } catch (Exception e) {
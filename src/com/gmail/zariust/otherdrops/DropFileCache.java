@@ -0,0 +1,329 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.gmail.zariust.common.Verbosity;
+
+/**
+ * A cache of the parsed drop files, so that startup doesn't need to parse
+ * the YAML again if none of the files have changed. Each file is stored with
+ * a hash of the contents it was parsed from, and the whole cache is thrown
+ * away if any file differs or the plugin version has changed.
+ *
+ * Only the plain YAML value types (sections, lists, strings, numbers and
+ * booleans) are stored, as tagged primitives - a file with any other value
+ * isn't cached. Off by default (cache_drop_files): the files are still read
+ * and hashed and the drops still built, only the YAML parsing is skipped.
+ */
+public class DropFileCache {
+    private static final String CACHE_FILE = "drops-cache.dat";
+    private static final int    FORMAT     = 2;
+
+    // value tags
+    private static final byte   NULL       = 0;
+    private static final byte   STRING     = 1;
+    private static final byte   INT        = 2;
+    private static final byte   LONG       = 3;
+    private static final byte   DOUBLE     = 4;
+    private static final byte   BOOLEAN    = 5;
+    private static final byte   LIST       = 6;
+    private static final byte   MAP        = 7;
+
+    /**
+     * A configuration rebuilt from cached values.
+     */
+    private static class CachedConfiguration extends YamlConfiguration {
+        CachedConfiguration(Map<?, ?> values) {
+            convertMapsToSections(values, this);
+        }
+    }
+
+    /**
+     * A parsed drop file and the hash of the bytes it was parsed from, so a
+     * change to the file while (or after) it is read can't end up cached
+     * under the new contents.
+     */
+    public static class DropFile {
+        public final YamlConfiguration config;
+        final byte[]                   hash;
+
+        DropFile(YamlConfiguration config, byte[] hash) {
+            this.config = config;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Read and parse a drop file.
+     */
+    public static DropFile load(File file) throws IOException,
+            InvalidConfigurationException {
+        byte[] data = readFile(file);
+        YamlConfiguration config = new YamlConfiguration();
+        config.load(new ByteArrayInputStream(data));
+        return new DropFile(config, hash(data));
+    }
+
+    /**
+     * Read the cached drop files.
+     *
+     * @return The parsed files by filename, or an empty map if there's no
+     *         cache or it is out of date.
+     */
+    public static Map<String, DropFile> read(File folder, String mainFile,
+            String version) {
+        File cache = new File(folder, CACHE_FILE);
+        if (!cache.exists())
+            return Collections.emptyMap();
+        Map<String, DropFile> files = new HashMap<String, DropFile>();
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(cache)));
+            if (in.readInt() != FORMAT || !version.equals(in.readUTF())
+                    || !mainFile.equals(in.readUTF()))
+                return outOfDate();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] hash = new byte[in.readInt()];
+                in.readFully(hash);
+                if (in.readByte() != MAP)
+                    throw new IOException("bad cache entry for " + name);
+                Map<String, Object> values = readMap(in);
+                if (!Arrays.equals(hash, hash(readFile(new File(folder, name)))))
+                    return outOfDate();
+                files.put(name, new DropFile(new CachedConfiguration(values),
+                        hash));
+            }
+        } catch (Exception e) {
+            Log.logInfo("Could not read drop file cache (" + e.toString()
+                    + "), loading drop files.", Verbosity.HIGH);
+            return Collections.emptyMap();
+        } finally {
+            close(in);
+        }
+        Log.logInfo("Using cached drop files (" + files.size() + ").",
+                Verbosity.HIGH);
+        return files;
+    }
+
+    private static Map<String, DropFile> outOfDate() {
+        Log.logInfo("Drop file cache is out of date, loading drop files.",
+                Verbosity.HIGHEST);
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Replace the cache with the given (successfully loaded) drop files.
+     */
+    public static void write(File folder, String mainFile, String version,
+            Map<String, DropFile> files) {
+        File cache = new File(folder, CACHE_FILE);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(cache)));
+            out.writeInt(FORMAT);
+            out.writeUTF(version);
+            out.writeUTF(mainFile);
+            out.writeInt(files.size());
+            for (Map.Entry<String, DropFile> file : files.entrySet()) {
+                out.writeUTF(file.getKey());
+                out.writeInt(file.getValue().hash.length);
+                out.write(file.getValue().hash);
+                writeValue(out, file.getValue().config);
+            }
+        } catch (Exception e) {
+            // eg. a value of a type we don't store - just don't cache
+            Log.logInfo("Could not write drop file cache: " + e.toString(),
+                    Verbosity.HIGH);
+            close(out);
+            out = null;
+            cache.delete();
+        } finally {
+            close(out);
+        }
+    }
+
+    public static void delete(File folder) {
+        new File(folder, CACHE_FILE).delete();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list)
+                writeValue(out, item);
+        } else if (value instanceof ConfigurationSection) {
+            ConfigurationSection section = (ConfigurationSection) value;
+            out.writeByte(MAP);
+            out.writeInt(section.getKeys(false).size());
+            for (String key : section.getKeys(false)) {
+                writeString(out, key);
+                writeValue(out, section.get(key));
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IOException("can't cache a "
+                    + value.getClass().getSimpleName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return readString(in);
+        case INT:
+            return in.readInt();
+        case LONG:
+            return in.readLong();
+        case DOUBLE:
+            return in.readDouble();
+        case BOOLEAN:
+            return in.readBoolean();
+        case LIST:
+            int size = in.readInt();
+            List<Object> list = new ArrayList<Object>();
+            for (int i = 0; i < size; i++)
+                list.add(readValue(in));
+            return list;
+        case MAP:
+            return readMap(in);
+        default:
+            throw new IOException("unknown value type " + tag);
+        }
+    }
+
+    private static Map<String, Object> readMap(DataInputStream in)
+            throws IOException {
+        int size = in.readInt();
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+
+    // writeUTF() is limited to 64k, so strings are stored as UTF-8 bytes
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("bad string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(
+                (int) file.length());
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0)
+                data.write(buffer, 0, read);
+        } finally {
+            in.close();
+        }
+        return data.toByteArray();
+    }
+
+    private static byte[] hash(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void close(Closeable stream) {
+        if (stream == null)
+            return;
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
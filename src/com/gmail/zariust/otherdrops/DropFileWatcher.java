@@ -0,0 +1,88 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+
+import com.gmail.zariust.common.Verbosity;
+
+/**
+ * Checks the loaded drop files for changes every few seconds (if
+ * watch_drop_files is on) and reloads just the changed files (see
+ * OtherDropsConfig.reloadDropFiles()).
+ *
+ * The file times are checked off the main thread, the reload itself is done
+ * on the main thread.
+ */
+public class DropFileWatcher implements Runnable {
+    private static final long      INTERVAL = 100; // ticks
+
+    private static int             taskId   = -1;
+
+    private final OtherDrops       plugin;
+    // a reload has been scheduled but not run yet
+    private volatile boolean       pending;
+
+    private DropFileWatcher(OtherDrops plugin) {
+        this.plugin = plugin;
+    }
+
+    public static void start(OtherDrops plugin) {
+        if (taskId != -1)
+            return;
+        taskId = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin,
+                new DropFileWatcher(plugin), INTERVAL, INTERVAL).getTaskId();
+        Log.logInfo("Watching drop files for changes.", Verbosity.HIGH);
+    }
+
+    public static void stop() {
+        if (taskId == -1)
+            return;
+        Bukkit.getScheduler().cancelTask(taskId);
+        taskId = -1;
+    }
+
+    @Override
+    public void run() {
+        if (pending)
+            return;
+        File folder = plugin.getDataFolder();
+        final List<String> changed = new ArrayList<String>();
+        for (Map.Entry<String, Long> file : plugin.config.getDropFileTimes()
+                .entrySet()) {
+            File yml = new File(folder, file.getKey());
+            // skip deleted files, they'd just fail to load
+            if (yml.exists() && yml.lastModified() != file.getValue())
+                changed.add(file.getKey());
+        }
+        if (changed.isEmpty())
+            return;
+        pending = true;
+        Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, new Runnable() {
+            @Override
+            public void run() {
+                pending = false;
+                plugin.config.reloadDropFiles(changed);
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+
+/**
+ * A running count of the living entities in each world, for the
+ * custom_spawn_limit check, so that it doesn't need to build a list of every
+ * entity in the world for each spawn.
+ *
+ * Counts are kept up to date by OdEntityCountListener (spawns, deaths, world
+ * changes and chunk loads/unloads). Entities can also disappear without an
+ * event (eg. despawning) so a task recounts the counted worlds every
+ * RECOUNT_INTERVAL.
+ */
+public class EntityCounter implements Runnable {
+    private static final long                 RECOUNT_INTERVAL = 600;   // ticks
+
+    private static final Map<World, EntityCounter> counters    = new WeakHashMap<World, EntityCounter>();
+    private static int                        taskId           = -1;
+
+    private int                               count;
+
+    /**
+     * @return The (approximate) number of living entities in the world.
+     */
+    public static int count(World world) {
+        // not kept up to date unless there are creature drops loaded
+        if (taskId == -1)
+            return world.getLivingEntities().size();
+        EntityCounter counter = counters.get(world);
+        if (counter == null) {
+            // counted once here, then kept up to date by the task
+            counter = new EntityCounter();
+            counter.count = world.getLivingEntities().size();
+            counters.put(world, counter);
+        }
+        return counter.count;
+    }
+
+    public static void start(OtherDrops plugin) {
+        stop();
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin,
+                new EntityCounter(), RECOUNT_INTERVAL, RECOUNT_INTERVAL);
+    }
+
+    public static void stop() {
+        if (taskId == -1)
+            return;
+        Bukkit.getScheduler().cancelTask(taskId);
+        taskId = -1;
+    }
+
+    @Override
+    public void run() {
+        for (Map.Entry<World, EntityCounter> counter : counters.entrySet())
+            counter.getValue().count = counter.getKey().getLivingEntities()
+                    .size();
+    }
+
+    /**
+     * @return The number of living entities in the chunk.
+     */
+    public static int count(Chunk chunk) {
+        int count = 0;
+        for (Entity entity : chunk.getEntities())
+            if (entity instanceof LivingEntity)
+                count++;
+        return count;
+    }
+
+    public static void clear() {
+        counters.clear();
+    }
+
+    // Only worlds that have been counted are updated, the rest are counted
+    // when first needed
+
+    public static void added(World world) {
+        change(world, 1);
+    }
+
+    public static void removed(World world) {
+        change(world, -1);
+    }
+
+    public static void chunkLoaded(Chunk chunk) {
+        if (counters.containsKey(chunk.getWorld()))
+            change(chunk.getWorld(), count(chunk));
+    }
+
+    public static void chunkUnloaded(Chunk chunk) {
+        if (counters.containsKey(chunk.getWorld()))
+            change(chunk.getWorld(), -count(chunk));
+    }
+
+    private static void change(World world, int by) {
+        EntityCounter counter = counters.get(world);
+        if (counter == null)
+            return;
+        counter.count += by;
+        if (counter.count < 0)
+            counter.count = 0;
+    }
+}
@@ -19,6 +19,11 @@ import org.bukkit.plugin.java.JavaPlugin;
 import com.gmail.zariust.common.Verbosity;
 
 public class Log {
+    // Start the server with -Dotherdrops.nodebug=true to drop all HIGH and
+    // above (debug) logging - being a static final the JIT removes the guarded
+    // branches entirely.
+    public static final boolean DEBUG = !Boolean.getBoolean("otherdrops.nodebug");
+
     static ConsoleCommandSender console = null;
     static String pluginName = "";
     static String pluginVersion = "";
@@ -111,7 +116,7 @@ public class Log {
         // Deliberately doesn't check gColorLogMessage as I want these messages
         // to stand out in case they
         // are left in by accident
-        if (OtherDropsConfig.verbosity.exceeds(Verbosity.HIGHEST))
+        if (isLogging(Verbosity.HIGHEST))
             if (console != null && OtherDropsConfig.gColorLogMessages) {
                 console.sendMessage(ChatColor.RED + "[" + pluginName + ":"
                         + pluginVersion + "] " + ChatColor.RESET
@@ -122,10 +127,64 @@ public class Log {
             }
     }
 
+    /**
+     * Check if messages at the given level will be logged - use this to guard
+     * any logging that needs work to build the message.
+     * 
+     * @param level
+     * @return true if the message would be logged
+     */
+    public static boolean isLogging(Verbosity level) {
+        if (!DEBUG && level.exceeds(Verbosity.HIGH))
+            return false;
+        return OtherDropsConfig.verbosity.exceeds(level);
+    }
+
+    // Lazy logInfo - the message is only built (by replacing each "{}" in the
+    // format with the next argument) if the level is being logged.
+    // Fixed argument counts avoid creating a varargs array on every call.
+    public static void logInfo(Verbosity level, String format, Object arg) {
+        if (isLogging(level))
+            logInfo(format(format, arg), level);
+    }
+
+    public static void logInfo(Verbosity level, String format, Object arg1,
+            Object arg2) {
+        if (isLogging(level))
+            logInfo(format(format, arg1, arg2), level);
+    }
+
+    public static void logInfo(Verbosity level, String format, Object arg1,
+            Object arg2, Object arg3) {
+        if (isLogging(level))
+            logInfo(format(format, arg1, arg2, arg3), level);
+    }
+
+    public static void logInfo(Verbosity level, String format, Object arg1,
+            Object arg2, Object arg3, Object arg4) {
+        if (isLogging(level))
+            logInfo(format(format, arg1, arg2, arg3, arg4), level);
+    }
+
+    static String format(String format, Object... args) {
+        StringBuilder msg = new StringBuilder(format.length() + 16
+                * args.length);
+        int start = 0;
+        for (Object arg : args) {
+            int pos = format.indexOf("{}", start);
+            if (pos < 0)
+                break;
+            msg.append(format, start, pos).append(String.valueOf(arg));
+            start = pos + 2;
+        }
+        msg.append(format, start, format.length());
+        return msg.toString();
+    }
+
     // LogInfo & LogWarning - if given a level will report the message
     // only for that level & above
     public static void logInfo(String msg, Verbosity level) {
-        if (OtherDropsConfig.verbosity.exceeds(level)) {
+        if (isLogging(level)) {
             if (console != null && OtherDropsConfig.gColorLogMessages) {
                 ChatColor col = ChatColor.GREEN;
                 switch (level) {
@@ -162,6 +221,11 @@ public class Log {
             logWarning(msg);
     }
 
+    public static void logWarning(Verbosity level, String format, Object arg) {
+        if (OtherDropsConfig.verbosity.exceeds(level))
+            logWarning(format(format, arg));
+    }
+
     // TODO: This is only for temporary debug purposes.
     public static void stackTrace() {
         if (OtherDropsConfig.verbosity.exceeds(EXTREME))
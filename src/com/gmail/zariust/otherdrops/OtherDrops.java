@@ -44,11 +44,16 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffectType;
 
 import com.gmail.zariust.common.Verbosity;
+import com.gmail.zariust.otherdrops.event.DropQueue;
+import com.gmail.zariust.otherdrops.event.DropScheduler;
 import com.gmail.zariust.otherdrops.listener.OdBlockGrowListener;
 import com.gmail.zariust.otherdrops.listener.OdBlockListener;
 import com.gmail.zariust.otherdrops.listener.OdBlockPlaceListener;
+import com.gmail.zariust.otherdrops.listener.OdEntityCountListener;
+import com.gmail.zariust.otherdrops.listener.OdEntityDamageListener;
 import com.gmail.zariust.otherdrops.listener.OdEntityListener;
 import com.gmail.zariust.otherdrops.listener.OdFishingListener;
+import com.gmail.zariust.otherdrops.listener.OdPermissionCacheListener;
 import com.gmail.zariust.otherdrops.listener.OdPlayerConsumeListener;
 import com.gmail.zariust.otherdrops.listener.OdPlayerJoinListener;
 import com.gmail.zariust.otherdrops.listener.OdPlayerListener;
@@ -56,9 +61,13 @@ import com.gmail.zariust.otherdrops.listener.OdPlayerMoveListener;
 import com.gmail.zariust.otherdrops.listener.OdPlayerRespawnListener;
 import com.gmail.zariust.otherdrops.listener.OdProjectileHitListener;
 import com.gmail.zariust.otherdrops.listener.OdRedstoneListener;
+import com.gmail.zariust.otherdrops.listener.OdRegionIndexListener;
 import com.gmail.zariust.otherdrops.listener.OdSpawnListener;
+import com.gmail.zariust.otherdrops.listener.OdSpawnerIndexListener;
 import com.gmail.zariust.otherdrops.listener.OdVehicleListener;
 import com.gmail.zariust.otherdrops.options.Weather;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+import com.gmail.zariust.otherdrops.parameters.conditions.Cooldown;
 
 public class OtherDrops extends JavaPlugin {
     public static OtherDrops     plugin;
@@ -69,6 +78,8 @@ public class OtherDrops extends JavaPlugin {
     // Global random number generator - used throughout the whole plugin
     public static Random         rng    = new Random();
 
+    private static final String  COOLDOWN_FILE = "cooldowns.dat";
+
     // Config stuff
     public OtherDropsConfig      config = null;
     protected boolean            enableBlockTo;
@@ -84,6 +95,8 @@ public class OtherDrops extends JavaPlugin {
         initLogger();
         registerParameters();
         initConfig();
+        if (OtherDropsConfig.gPersistCooldowns)
+            Cooldown.load(new File(getDataFolder(), COOLDOWN_FILE));
         registerCommands();
         if (OtherDropsConfig.exportEnumLists)
             exportEnumLists();
@@ -214,6 +227,11 @@ public class OtherDrops extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        DropFileWatcher.stop();
+        DropScheduler.drain();
+        DropQueue.stop();
+        if (OtherDropsConfig.gPersistCooldowns)
+            Cooldown.save(new File(getDataFolder(), COOLDOWN_FILE));
         Log.logInfo("Unloaded.");
     }
 
@@ -232,6 +250,10 @@ public class OtherDrops extends JavaPlugin {
             registered += "Entity, ";
             pm.registerEvents(new OdEntityListener(plugin), plugin);
         }
+        if (OtherDropsConfig.dropsFilter.hasDrops(Trigger.HIT)) {
+            registered += "EntityDamage, ";
+            pm.registerEvents(new OdEntityDamageListener(plugin), plugin);
+        }
         if (OtherDropsConfig.dropForClick) {
             registered += "Player (left/rightclick), ";
             pm.registerEvents(new OdPlayerListener(plugin), plugin);
@@ -276,9 +298,33 @@ public class OtherDrops extends JavaPlugin {
             registered += "BlockPlace, ";
             pm.registerEvents(new OdBlockPlaceListener(plugin), plugin);
         }
+        EntityCounter.clear(); // may have missed changes while not registered
+        if (OtherDropsConfig.countEntities) {
+            registered += "EntityCounter, ";
+            EntityCounter.start(plugin);
+            pm.registerEvents(new OdEntityCountListener(), plugin);
+        } else {
+            EntityCounter.stop();
+        }
+        PermissionCache.clear();
+        if (OtherDropsConfig.cachePermissions) {
+            registered += "PermissionCache, ";
+            pm.registerEvents(new OdPermissionCacheListener(), plugin);
+        }
+        if (Dependencies.hasWorldGuard()) {
+            registered += "RegionIndex, ";
+            pm.registerEvents(new OdRegionIndexListener(), plugin);
+        }
+        if (OtherDropsConfig.trackMobSpawners) {
+            registered += "SpawnerIndex, ";
+            SpawnerIndex.clear(); // may have missed changes while not registered
+            pm.registerEvents(new OdSpawnerIndexListener(), plugin);
+        }
         registered += "Vehicle.";
         pm.registerEvents(new OdVehicleListener(plugin), plugin);
 
+        DropQueue.start(plugin); // drop_tick_budget may have changed
+
         // BlockTo seems to trigger quite often, leaving off unless explicitly
         // enabled for now
         if (OtherDropsConfig.enableBlockTo) {
@@ -16,6 +16,8 @@
 
 package com.gmail.zariust.otherdrops;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,7 +70,8 @@ public class OtherDropsCommand implements CommandExecutor {
         HEROESTEST("heroestest", "ht", ""),
         RPGTEST("rpg", "", ""),
         DROP("drop", "d,o", "otherdrops.admin.drop"),
-        TRIGGERS("triggers", "t", "otherdrops.admin.triggers");
+        TRIGGERS("triggers", "t", "otherdrops.admin.triggers"),
+        PROFILE("profile", "p", "otherdrops.admin.profile");
 
         private String cmdName;
         private String cmdShort;
@@ -187,6 +190,9 @@ public class OtherDropsCommand implements CommandExecutor {
             }
             sender.sendMessage("Available OtherDrops triggers: "+triggers.substring(0, triggers.length()-2));
             break;
+        case PROFILE:
+            cmdProfile(sender, args);
+            break;
         default:
             break;
 
@@ -494,11 +500,58 @@ public class OtherDropsCommand implements CommandExecutor {
 
     /**
      * @param sender
+     * @param args
      */
-    private void cmdReload(CommandSender sender) {
-        otherdrops.config.load(sender);
-        sender.sendMessage("OtherDrops config reloaded.");
-        Log.logInfo("Config reloaded by " + getName(sender) + ".");
+    private void cmdProfile(CommandSender sender, String[] args) {
+        String action = args.length > 0 ? args[0] : "";
+        if (action.equalsIgnoreCase("start")) {
+            Profiler.begin();
+            sender.sendMessage(ChatColor.GREEN
+                    + "OtherDrops profiler started (previous results cleared).");
+        } else if (action.equalsIgnoreCase("stop")) {
+            Profiler.end();
+            sender.sendMessage(ChatColor.RED
+                    + "OtherDrops profiler stopped - use /od profile dump to see the results.");
+        } else if (action.equalsIgnoreCase("dump")) {
+            int top = 10;
+            if (args.length > 1) {
+                try {
+                    top = Integer.parseInt(args[1]);
+                } catch (NumberFormatException ex) {
+                    sender.sendMessage("Error, not a number: " + args[1]);
+                    return;
+                }
+            }
+            for (String line : Profiler.summary(top))
+                sender.sendMessage(line);
+            try {
+                File file = Profiler.writeCsv(otherdrops.getDataFolder());
+                sender.sendMessage("Full results written to " + file.getName());
+            } catch (IOException ex) {
+                sender.sendMessage(ChatColor.RED
+                        + "Failed to write profile results: " + ex.getMessage());
+            }
+        } else {
+            sender.sendMessage("Profiler is "
+                    + (Profiler.isEnabled() ? ChatColor.GREEN + "running"
+                            : ChatColor.GRAY + "stopped") + ChatColor.RESET
+                    + ". Usage: /od profile (start|stop|dump [n])");
+        }
+    }
+
+    /**
+     * @param sender
+     */
+    private void cmdReload(final CommandSender sender) {
+        boolean started = otherdrops.config.loadAsync(sender, new Runnable() {
+            @Override
+            public void run() {
+                sender.sendMessage("OtherDrops config reloaded.");
+                Log.logInfo("Config reloaded by " + getName(sender) + ".");
+            }
+        });
+        if (!started)
+            sender.sendMessage("OtherDrops config is already reloading.");
     }
 
     /**
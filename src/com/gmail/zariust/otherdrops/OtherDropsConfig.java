@@ -28,10 +28,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -54,6 +58,7 @@ import org.yaml.snakeyaml.scanner.ScannerException;
 import com.gmail.zariust.common.CommonMaterial;
 import com.gmail.zariust.common.MaterialGroup;
 import com.gmail.zariust.common.Verbosity;
+import com.gmail.zariust.otherdrops.DropFileCache.DropFile;
 import com.gmail.zariust.otherdrops.data.Data;
 import com.gmail.zariust.otherdrops.data.SimpleData;
 import com.gmail.zariust.otherdrops.drop.CreatureDrop;
@@ -63,6 +68,8 @@ import com.gmail.zariust.otherdrops.drop.DropType;
 import com.gmail.zariust.otherdrops.drop.ExperienceDrop;
 import com.gmail.zariust.otherdrops.drop.MoneyDrop;
 import com.gmail.zariust.otherdrops.event.CustomDrop;
+import com.gmail.zariust.otherdrops.event.DropScheduler;
+import com.gmail.zariust.otherdrops.event.DropsFilter;
 import com.gmail.zariust.otherdrops.event.DropsMap;
 import com.gmail.zariust.otherdrops.event.GroupDropEvent;
 import com.gmail.zariust.otherdrops.event.SimpleDrop;
@@ -76,6 +83,7 @@ import com.gmail.zariust.otherdrops.options.SoundEffect;
 import com.gmail.zariust.otherdrops.options.Time;
 import com.gmail.zariust.otherdrops.options.ToolDamage;
 import com.gmail.zariust.otherdrops.options.Weather;
+import com.gmail.zariust.otherdrops.parameters.Condition;
 import com.gmail.zariust.otherdrops.parameters.Trigger;
 import com.gmail.zariust.otherdrops.special.SpecialResult;
 import com.gmail.zariust.otherdrops.special.SpecialResultHandler;
@@ -100,8 +108,30 @@ public class OtherDropsConfig {
 
     private final OtherDrops           parent;
 
-    // Our main list of drops
-    protected DropsMap                 blocksHash;
+    // Our main list of drops - only ever replaced as a whole, once a load has
+    // succeeded (see load())
+    protected volatile DropsMap        blocksHash;
+    // The drops being loaded
+    private DropsMap                   loadingHash;
+    private boolean                    dropsLoaded;
+    private volatile boolean           reloading;
+
+    // Loaded drop files: the files each one includes, and when it was last
+    // modified (checked by DropFileWatcher) - replaced along with blocksHash
+    private Map<String, List<String>>  includesOf                            = new HashMap<String, List<String>>();
+    private volatile Map<String, Long> fileModified                          = new HashMap<String, Long>();
+    private Map<String, List<String>>  loadingIncludes;
+    private Map<String, Long>          loadingModified;
+    // the parsed drop files, for DropFileCache (full loads only)
+    private Map<String, DropFile>      loadingConfigs;
+    private String                     currentDropFile;
+
+    // Drop files already read by loadAsync(), by filename
+    private Map<String, DropFile>      preloaded                             = Collections.emptyMap();
+
+    // Triggers & target keys that have drops - checked by the listeners before
+    // creating an OccurredEvent. Only ever replaced as a whole (on load).
+    public static volatile DropsFilter dropsFilter                           = new DropsFilter();
 
     // Name of drops file
     private String                     mainDropsName;
@@ -150,6 +180,15 @@ public class OtherDropsConfig {
     public static boolean              dropForPlayerRespawn;                                                  // PLAYERRESPAWN
     public static boolean              dropForPlayerConsume;
     public static boolean              dropForPlayerMove;
+    public static boolean              trackMobSpawners;                                                      // config
+                                                                                                               // using
+                                                                                                               // "mobspawnerinradius:"
+    public static boolean              countEntities;                                                         // creature
+                                                                                                               // drops
+                                                                                                               // (custom_spawn_limit)
+    public static boolean              cachePermissions;                                                      // permissions,
+                                                                                                               // permissiongroups
+                                                                                                               // or PLAYERGROUP
 
     
     // Defaults
@@ -210,6 +249,7 @@ public class OtherDropsConfig {
     public static boolean              globalOverrideExplosionCap            = false;
 
     public static int                  globalCustomSpawnLimit;
+    public static int                  globalCustomSpawnLimitChunk;
 
     public static String               gTimeFormat                           = "HH:mm:ss";
 
@@ -224,6 +264,20 @@ public class OtherDropsConfig {
 
     public static boolean gcustomBlockBreakToMcmmo;
 
+    // save running cooldowns on shutdown & load them again on startup
+    public static boolean gPersistCooldowns;
+
+    // max time (ms) per tick spent on drop output, the rest waits for later
+    // ticks - 0 to run everything straight away
+    public static double gDropTickBudget;
+
+    // reload drop files automatically when they're changed
+    public static boolean gWatchDropFiles;
+
+    // keep parsed drop files in drops-cache.dat to skip the YAML parsing on
+    // startup
+    public static boolean gCacheDropFiles;
+
 
     private boolean                    globalAllowAnyReplacementBlock;
 
@@ -287,12 +341,187 @@ public class OtherDropsConfig {
         dropForPlayerMove = false;
         dropForBlockGrow = false;
         dropForBlockPlace = false;
+        trackMobSpawners = false;
+        countEntities = false;
+        cachePermissions = false;
         actionParameterFound = false;
     }
+
+    /**
+     * @return The current value of every static setting (the "dropFor" flags
+     *         and the settings from otherdrops-config.yml), so they can be
+     *         put back if a reload fails.
+     */
+    private static Map<Field, Object> getStaticSettings() {
+        Map<Field, Object> settings = new HashMap<Field, Object>();
+        for (Field field : OtherDropsConfig.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)
+                    || field.isSynthetic())
+                continue;
+            try {
+                field.setAccessible(true);
+                settings.put(field, field.get(null));
+            } catch (IllegalAccessException e) {
+                Log.logWarning("Could not save setting " + field.getName()
+                        + ": " + e.toString(), HIGH);
+            }
+        }
+        return settings;
+    }
+
+    private static void setStaticSettings(Map<Field, Object> settings) {
+        for (Map.Entry<Field, Object> setting : settings.entrySet()) {
+            try {
+                setting.getKey().set(null, setting.getValue());
+            } catch (IllegalAccessException e) {
+                Log.logWarning("Could not restore setting "
+                        + setting.getKey().getName() + ": " + e.toString(),
+                        HIGH);
+            }
+        }
+    }
+
+    /**
+     * Reload, reading & parsing the drop files (the slow part for large
+     * configs) off the main thread. The drops are then built and swapped in
+     * on the main thread as the parameters use the Bukkit API.
+     *
+     * @param done
+     *            Run (on the main thread) after loading, or null.
+     * @return False if a reload is already running.
+     */
+    public boolean loadAsync(final CommandSender sender, final Runnable done) {
+        if (reloading)
+            return false;
+        reloading = true;
+        final File folder = parent.getDataFolder();
+        try {
+            startReload(sender, done, folder);
+        } catch (RuntimeException e) {
+            // eg. the plugin was disabled, so the task wasn't accepted
+            reloading = false;
+            throw e;
+        }
+        return true;
+    }
+
+    private void startReload(final CommandSender sender, final Runnable done,
+            final File folder) {
+        Bukkit.getScheduler().runTaskAsynchronously(parent, new Runnable() {
+            @Override
+            public void run() {
+                final Map<String, DropFile> files = new HashMap<String, DropFile>();
+                try {
+                    YamlConfiguration globalConfig = YamlConfiguration
+                            .loadConfiguration(new File(folder,
+                                    "otherdrops-config.yml"));
+                    readDropFiles(folder, globalConfig.getString("rootconfig",
+                            "otherdrops-drops.yml"), files);
+                } catch (Exception e) {
+                    // anything not read is loaded (and errors reported) on
+                    // the main thread
+                }
+                int task = -1;
+                try {
+                    task = Bukkit.getScheduler().scheduleSyncDelayedTask(parent,
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        preloaded = files;
+                                        load(sender);
+                                    } finally {
+                                        reloading = false;
+                                    }
+                                    if (done != null)
+                                        done.run();
+                                }
+                            });
+                } catch (RuntimeException e) {
+                    // not accepted, see below
+                }
+                // disabled while reading the files, so the reload can't
+                // finish
+                if (task == -1)
+                    reloading = false;
+            }
+        });
+    }
+
+    /**
+     * Read a drop file and its includes, skipping any that fail (they'll fail
+     * again and be reported by loadDropsFile).
+     */
+    private static void readDropFiles(File folder, String filename,
+            Map<String, DropFile> files) {
+        if (files.containsKey(filename))
+            return;
+        File yml = new File(folder, filename);
+        if (!yml.exists())
+            return;
+        DropFile file;
+        try {
+            file = DropFileCache.load(yml);
+        } catch (Exception e) {
+            return;
+        }
+        files.put(filename, file);
+        for (String include : file.config.getStringList("include-files"))
+            readDropFiles(folder, include, files);
+    }
+
     // load
     public void load(CommandSender sender) {
+        // finish any delayed drops from the old config before replacing it
+        DropScheduler.drain();
+        // Load into a new config, which only replaces this one if it loads.
+        // The static settings are shared, so they are put back on failure.
+        Map<Field, Object> oldSettings = getStaticSettings();
+        OtherDropsConfig fresh = new OtherDropsConfig(parent);
+        fresh.preloaded = preloaded;
+        preloaded = Collections.emptyMap();
+        // anything that looks up the config while loading (eg. event
+        // handlers) should see the new one
+        parent.config = fresh;
+        boolean loaded = fresh.loadAll(sender);
+
+        OtherDropsConfig config = fresh;
+        if (loaded || !dropsLoaded) {
+            // on the first load there's nothing to fall back to, so use
+            // whatever did load
+            fresh.swapIn(loaded);
+        } else {
+            parent.config = this;
+            config = this;
+            setStaticSettings(oldSettings);
+            sendMessage(sender, Collections.singletonList(
+                    "Keeping the previously loaded drops."));
+        }
+        OtherDrops.disableOtherDrops(); // deregister all listeners
+        OtherDrops.enableOtherDrops(); // register only needed listeners
+        if (gWatchDropFiles)
+            DropFileWatcher.start(parent);
+        else
+            DropFileWatcher.stop();
+
+        config.plotConfigDataToMetrics();
+    }
+
+    /**
+     * Load the config and drop files into this (new) config.
+     *
+     * @return False if loading failed part way.
+     */
+    private boolean loadAll(CommandSender sender) {
         List<String> result = new ArrayList<String>();
-        
+        boolean loaded = false;
+        loadingHash = new DropsMap();
+        loadingIncludes = new HashMap<String, List<String>>();
+        loadingModified = new HashMap<String, Long>();
+        loadingConfigs = new HashMap<String, DropFile>();
+        Condition.clearShared();
+
         try {
             // make sure all files exist, if not export from jar file
             firstRun();
@@ -302,9 +531,22 @@ public class OtherDropsConfig {
             loadConfig();
             // intialise dependencies
             Dependencies.init();
+            File folder = parent.getDataFolder();
+            String version = parent.getDescription().getVersion();
+            boolean cached = false;
+            if (gCacheDropFiles && preloaded.isEmpty()) {
+                preloaded = DropFileCache.read(folder, mainDropsName, version);
+                cached = !preloaded.isEmpty();
+            }
             loadDropsFile(mainDropsName);
-            blocksHash.applySorting();
-            
+            loadingHash.applySorting();
+            loaded = true;
+            if (!gCacheDropFiles)
+                DropFileCache.delete(folder);
+            else if (!cached)
+                DropFileCache.write(folder, mainDropsName, version,
+                        loadingConfigs);
+
             if (actionParameterFound)
                 result.add("Note - 'action:' parameter is outdated (but still supported) - please use 'trigger:'");
             result.add("Config loaded - total targets: "+this.dropTargets +" sections: "+this.dropSections+ " failed: "+this.dropFailed);
@@ -346,10 +588,105 @@ public class OtherDropsConfig {
             result.add("If you can fix the error, reload with /odr.");
             sendMessage(sender, result);
         }
-        OtherDrops.disableOtherDrops(); // deregister all listeners
-        OtherDrops.enableOtherDrops(); // register only needed listeners
+        preloaded = Collections.emptyMap();
+        loadingConfigs = null;
+        return loaded;
+    }
+
+    /**
+     * Make the loaded drops live, in one go so that events see either the old
+     * or the new drops and never a partly loaded set.
+     *
+     * @param sorted
+     *            False if loading failed before the drops were sorted.
+     */
+    private void swapIn(boolean sorted) {
+        if (!sorted)
+            loadingHash.applySorting();
+        dropsFilter = loadingHash.compileFilter();
+        blocksHash = loadingHash;
+        includesOf = loadingIncludes;
+        fileModified = loadingModified;
+        dropsLoaded = true;
+        loadingHash = null;
+        loadingIncludes = null;
+        loadingModified = null;
+    }
+
+    /**
+     * @return The loaded drop files and when they were last modified.
+     */
+    public Map<String, Long> getDropFileTimes() {
+        return fileModified;
+    }
+
+    /**
+     * Reload only the given drop files, and the files they include, keeping
+     * the drops from all other files. If loading fails the current drops are
+     * kept.
+     *
+     * @param changed
+     *            The drop files that have changed.
+     */
+    public void reloadDropFiles(Collection<String> changed) {
+        if (reloading)
+            return;
+        // everything included from a changed file is reloaded with it
+        Set<String> reloaded = new LinkedHashSet<String>();
+        for (String file : changed)
+            addWithIncludes(file, reloaded);
+
+        loadedDropFiles.clear();
+        loadedDropFiles.addAll(includesOf.keySet());
+        loadedDropFiles.removeAll(reloaded);
+        // don't keep the conditions of the replaced drops alive (the kept
+        // drops still have theirs, they just aren't shared with new drops)
+        Condition.clearShared();
+        loadingHash = new DropsMap();
+        loadingIncludes = new HashMap<String, List<String>>(includesOf);
+        loadingModified = new HashMap<String, Long>(fileModified);
+        for (String file : reloaded) {
+            loadingIncludes.remove(file);
+            loadingModified.remove(file);
+        }
 
-        plotConfigDataToMetrics();
+        try {
+            for (String file : changed)
+                if (!loadedDropFiles.contains(file)) // included by another
+                    loadDropsFile(file);
+            DropsMap loaded = blocksHash.replaceSources(reloaded, loadingHash);
+            loaded.applySorting();
+            dropsFilter = loaded.compileFilter();
+            blocksHash = loaded;
+            includesOf = loadingIncludes;
+            fileModified = loadingModified;
+            Log.logInfo("Reloaded changed drop files: " + reloaded, NORMAL);
+            // new drops may need more listeners
+            OtherDrops.disableOtherDrops();
+            OtherDrops.enableOtherDrops();
+        } catch (Exception e) {
+            if (verbosity.exceeds(HIGH))
+                e.printStackTrace();
+            Log.logWarning("Reloading " + reloaded + " failed, keeping the previously loaded drops. The error was: "
+                    + e.toString());
+            // don't retry until the files change again
+            Map<String, Long> times = new HashMap<String, Long>(fileModified);
+            for (String file : changed)
+                times.put(file, new File(parent.getDataFolder(), file).lastModified());
+            fileModified = times;
+        }
+        loadingHash = null;
+        loadingIncludes = null;
+        loadingModified = null;
+    }
+
+    private void addWithIncludes(String file, Set<String> files) {
+        if (!files.add(file))
+            return;
+        List<String> includes = includesOf.get(file);
+        if (includes != null)
+            for (String include : includes)
+                addWithIncludes(include, files);
     }
 
     private void sendMessage(CommandSender sender, List<String> result) {
@@ -469,7 +806,6 @@ public class OtherDropsConfig {
     public void loadConfig() throws FileNotFoundException, IOException,
             InvalidConfigurationException {
         this.dropSections = 0; this.dropTargets = 0; this.dropFailed = 0; // initialise counts
-        blocksHash.clear(); // clear here to avoid issues on /obr reloading
         loadedDropFiles.clear();
         clearDefaults();
 
@@ -544,6 +880,7 @@ public class OtherDropsConfig {
         globalOverrideExplosionCap = globalConfig.getBoolean(
                 "override_explosion_cap", false);
         globalCustomSpawnLimit = globalConfig.getInt("custom_spawn_limit", 150);
+        globalCustomSpawnLimitChunk = globalConfig.getInt("custom_spawn_limit_chunk", 0);
 
         gTimeFormat = globalConfig.getString("time_format", "HH:mm:ss");
         gDateFormat = globalConfig.getString("date_format", "yyyy/MM/dd");
@@ -551,6 +888,10 @@ public class OtherDropsConfig {
         gColorLogMessages = globalConfig.getBoolean("color_log_messages", true);
         gActionRadius = globalConfig.getInt("action_radius", 10);
         gcustomBlockBreakToMcmmo = globalConfig.getBoolean("send_customblockbreak_to_mcmmo", true);
+        gPersistCooldowns = globalConfig.getBoolean("persist_cooldowns", false);
+        gDropTickBudget = globalConfig.getDouble("drop_tick_budget", 2.0);
+        gWatchDropFiles = globalConfig.getBoolean("watch_drop_files", false);
+        gCacheDropFiles = globalConfig.getBoolean("cache_drop_files", false);
 
         mainDropsName = globalConfig.getString("rootconfig",
                 "otherdrops-drops.yml");
@@ -598,17 +939,21 @@ public class OtherDropsConfig {
         Log.logInfo("Loading file: " + filename, NORMAL);
 
         File yml = new File(parent.getDataFolder(), filename);
-        YamlConfiguration config = new YamlConfiguration();
-        try {
-            config.load(yml);
-        } catch (FileNotFoundException e) {
-            throw e;
-        } catch (IOException e) {
-            throw e;
-        } catch (InvalidConfigurationException e) {
-            //e.printStackTrace();
-            throw e;
+        DropFile file = preloaded.get(filename);
+        if (file == null) {
+            // not already read by loadAsync()
+            try {
+                file = DropFileCache.load(yml);
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                throw e;
+            } catch (InvalidConfigurationException e) {
+                //e.printStackTrace();
+                throw e;
+            }
         }
+        YamlConfiguration config = file.config;
 
         // Make sure config file exists (even for reloads - it's possible this
         // did not create successfully or was deleted before reload)
@@ -632,6 +977,9 @@ public class OtherDropsConfig {
             return;
         }
 
+        if (loadingConfigs != null)
+            loadingConfigs.put(filename, file);
+
         // Warn if wrong version
         int configVersion = config.getInt("configversion", 3);
         if (configVersion < 3)
@@ -666,6 +1014,8 @@ public class OtherDropsConfig {
         // else Log.logInfo("Loading defaults: none found.", Verbosity.HIGH);
 
         // Load the drops
+        String parentFile = currentDropFile;
+        currentDropFile = filename;
         ConfigurationSection node = config
                 .getConfigurationSection("otherdrops");
         Set<String> blocks = null;
@@ -780,8 +1130,11 @@ public class OtherDropsConfig {
 
         // Load the include files
         List<String> includeFiles = config.getStringList("include-files");
+        loadingIncludes.put(filename, includeFiles);
+        loadingModified.put(filename, yml.lastModified());
         for (String include : includeFiles)
             loadDropsFile(include);
+        currentDropFile = parentFile;
     }
 
     protected void loadModuleDefaults(ConfigurationNode defaults) {
@@ -903,7 +1256,7 @@ public class OtherDropsConfig {
                             + "; skipping.", NORMAL);
                     continue;
                 }
-                blocksHash.addDrop(drop);
+                loadingHash.addDrop(drop, currentDropFile);
             }
         }
     }
@@ -960,8 +1313,7 @@ public class OtherDropsConfig {
         // drop.addActions(DamageAction.parse(node));
         drop.addActions(com.gmail.zariust.otherdrops.parameters.Action
                 .parseNodes(node));
-        drop.addConditions(com.gmail.zariust.otherdrops.parameters.Condition
-                .parseNodes(node));
+        drop.addConditions(Condition.parseNodes(node));
 
         // Read tool
         drop.setTool(parseAgentFrom(node));
@@ -977,6 +1329,8 @@ public class OtherDropsConfig {
         drop.setTime(Time.parseFrom(node, defaultTime));
         drop.setGroups(parseGroupsFrom(node, defaultPermissionGroups));
         drop.setPermissions(parsePermissionsFrom(node, defaultPermissions));
+        if (drop.getGroups() != null || drop.getPermissions() != null)
+            cachePermissions = true;
         drop.setHeight(Comparative.parseFrom(node, "height", defaultHeight));
         drop.setAttackRange(Comparative.parseFrom(node, "attackrange",
                 defaultAttackRange));
@@ -0,0 +1,117 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.entity.Player;
+
+/**
+ * The groups and permissions of each player, as checked by drop conditions,
+ * so that a player is only asked once for each group or permission node
+ * rather than once per drop.
+ *
+ * Entries are thrown away by OdPermissionCacheListener when the player joins,
+ * quits or changes world, and all entries when a plugin (eg. a permissions
+ * plugin or Vault) is enabled or disabled. Permissions can also change
+ * without an event (eg. a rank command) so entries only last TTL. Nothing is
+ * kept unless the config uses permissions or groups (cachePermissions), as
+ * the listener is only registered then.
+ */
+public class PermissionCache {
+    private static final long                          TTL    = 5000; // ms
+
+    // by player name - each entry holds its player, so they're only removed
+    // by invalidate() and clear()
+    private static final Map<String, PermissionCache>  caches = new HashMap<String, PermissionCache>();
+
+    private final Player                               player;
+    private final long                                 createdAt;
+    private final Map<String, Boolean>                 groups      = new HashMap<String, Boolean>();
+    private final Map<String, Boolean>                 permissions = new HashMap<String, Boolean>();
+    private List<String>                               groupList;
+
+    private PermissionCache(Player player, long now) {
+        this.player = player;
+        this.createdAt = now;
+    }
+
+    /**
+     * Get the cache for a player, starting a new one if there isn't one yet
+     * or the old one has expired. Only meant to be called from the main
+     * server thread.
+     */
+    public static PermissionCache get(Player player) {
+        long now = System.currentTimeMillis();
+        // without the listener entries would never be thrown away
+        if (player == null || !OtherDropsConfig.cachePermissions)
+            return new PermissionCache(player, now);
+        PermissionCache cache = caches.get(player.getName());
+        if (cache == null || cache.player != player
+                || now - cache.createdAt > TTL) {
+            cache = new PermissionCache(player, now);
+            caches.put(player.getName(), cache);
+        }
+        return cache;
+    }
+
+    public static void invalidate(Player player) {
+        caches.remove(player.getName());
+    }
+
+    public static void clear() {
+        caches.clear();
+    }
+
+    /**
+     * @return The result of OtherDrops.inGroup() for the player.
+     */
+    public boolean inGroup(String group) {
+        Boolean result = groups.get(group);
+        if (result == null) {
+            result = OtherDrops.inGroup(player, group);
+            groups.put(group, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return The result of Dependencies.hasPermission() for the player.
+     */
+    public boolean hasPermission(String node) {
+        Boolean result = permissions.get(node);
+        if (result == null) {
+            result = Dependencies.hasPermission(player, node);
+            permissions.put(node, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return The (unmodifiable) result of OtherDrops.getGroups() for the
+     *         player.
+     */
+    public List<String> getGroups() {
+        if (groupList == null)
+            groupList = Collections.unmodifiableList(OtherDrops.plugin
+                    .getGroups(player));
+        return groupList;
+    }
+}
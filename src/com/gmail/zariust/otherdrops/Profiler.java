@@ -0,0 +1,263 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gmail.zariust.otherdrops.event.CustomDrop;
+
+/**
+ * Simple timing counters for the drop processing path (see /od profile).
+ *
+ * Usage: <code>long time = Profiler.start(); ...; Profiler.stop("section",
+ * key, time, hit);</code> - when profiling is off start() returns 0 and the
+ * other calls return straight away, so the cost is a single static field
+ * read. Only meant to be called from the main server thread.
+ */
+public final class Profiler {
+    private static boolean                          enabled  = false;
+    private static long                             startedAt;
+    private static long                             stoppedAt;
+
+    private static final Map<String, Stat>          sections = new LinkedHashMap<String, Stat>();
+    private static final Map<CustomDrop, Stat>      rules    = new IdentityHashMap<CustomDrop, Stat>();
+
+    private Profiler() {
+    }
+
+    /**
+     * Counters and a power-of-two nanosecond histogram for one section or
+     * rule.
+     */
+    static class Stat {
+        // bucket n holds times from 2^(n-1) up to 2^n nanoseconds
+        private static final int BUCKETS   = 40;
+
+        final String             name;
+        long                     count, hits, total, max;
+        final long[]             histogram = new long[BUCKETS];
+
+        Stat(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos, boolean hit) {
+            count++;
+            if (hit)
+                hits++;
+            total += nanos;
+            if (nanos > max)
+                max = nanos;
+            int bucket = 64 - Long.numberOfLeadingZeros(nanos);
+            histogram[bucket < BUCKETS ? bucket : BUCKETS - 1]++;
+        }
+
+        long average() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        /**
+         * @return The upper bound of the histogram bucket containing the given
+         *         percentile.
+         */
+        long percentile(double percent) {
+            long wanted = (long) Math.ceil(count * percent / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram[i];
+                if (seen >= wanted && seen > 0)
+                    return 1L << i;
+            }
+            return max;
+        }
+
+        double hitRatio() {
+            return count == 0 ? 0 : (double) hits / count;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Clear any existing results and start collecting.
+     */
+    public static void begin() {
+        sections.clear();
+        rules.clear();
+        startedAt = System.currentTimeMillis();
+        stoppedAt = 0;
+        enabled = true;
+    }
+
+    /**
+     * Stop collecting, keeping the results for dump().
+     */
+    public static void end() {
+        if (enabled)
+            stoppedAt = System.currentTimeMillis();
+        enabled = false;
+    }
+
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time for one stage of a longer section.
+     *
+     * @return The new start time for the next stage.
+     */
+    public static long lap(String stage, long start) {
+        if (start == 0 || !enabled)
+            return 0;
+        long now = System.nanoTime();
+        stat(stage).add(now - start, true);
+        return now;
+    }
+
+    public static void stop(String section, long start, boolean hit) {
+        if (start == 0 || !enabled)
+            return;
+        stat(section).add(System.nanoTime() - start, hit);
+    }
+
+    /**
+     * Record a section keyed by trigger and target key (as used in DropsMap).
+     */
+    public static void stop(String section, Object trigger, String key,
+            long start, boolean hit) {
+        if (start == 0 || !enabled)
+            return;
+        long nanos = System.nanoTime() - start;
+        stat(section).add(nanos, hit);
+        stat(section + " " + trigger + "@" + key).add(nanos, hit);
+    }
+
+    /**
+     * Record the time taken to match a single rule.
+     */
+    public static void stopRule(CustomDrop rule, long start, boolean hit) {
+        if (start == 0 || !enabled)
+            return;
+        Stat stat = rules.get(rule);
+        if (stat == null) {
+            stat = new Stat(rule.toString());
+            rules.put(rule, stat);
+        }
+        stat.add(System.nanoTime() - start, hit);
+    }
+
+    private static Stat stat(String name) {
+        Stat stat = sections.get(name);
+        if (stat == null) {
+            stat = new Stat(name);
+            sections.put(name, stat);
+        }
+        return stat;
+    }
+
+    /**
+     * Summarise the results, with the slowest rules (by total time) first.
+     *
+     * @param top
+     *            How many rules to list.
+     * @return Lines to show to the user.
+     */
+    public static List<String> summary(int top) {
+        List<String> result = new ArrayList<String>();
+        long until = stoppedAt == 0 ? System.currentTimeMillis() : stoppedAt;
+        result.add("Profile " + (enabled ? "(running) " : "") + "over "
+                + (startedAt == 0 ? 0 : (until - startedAt) / 1000) + "s:");
+        for (Stat stat : sections.values()) {
+            // the per trigger/target lines are in the CSV
+            if (stat.name.indexOf('@') < 0)
+                result.add(describe(stat));
+        }
+        List<Stat> slowest = sortedRules();
+        result.add("Top " + Math.min(top, slowest.size()) + " of "
+                + slowest.size() + " rules by total match time:");
+        for (int i = 0; i < top && i < slowest.size(); i++)
+            result.add((i + 1) + ". " + describe(slowest.get(i)));
+        return result;
+    }
+
+    private static String describe(Stat stat) {
+        return String.format("%s: %d calls, %.1f%% hit, avg %.1fus, max %.1fus, total %.1fms",
+                stat.name, stat.count, stat.hitRatio() * 100,
+                stat.average() / 1000.0, stat.max / 1000.0,
+                stat.total / 1000000.0);
+    }
+
+    private static List<Stat> sortedRules() {
+        List<Stat> sorted = new ArrayList<Stat>(rules.values());
+        Collections.sort(sorted, new Comparator<Stat>() {
+            @Override
+            public int compare(Stat a, Stat b) {
+                return a.total < b.total ? 1 : (a.total > b.total ? -1 : 0);
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Write all results to a CSV file in the given folder.
+     *
+     * @return The file written.
+     */
+    public static File writeCsv(File folder) throws IOException {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss")
+                .format(new Date());
+        File file = new File(folder, "profile-" + stamp + ".csv");
+        BufferedWriter out = new BufferedWriter(new FileWriter(file));
+        try {
+            out.write("type,name,count,hits,hit_ratio,total_ns,avg_ns,max_ns,p50_ns,p90_ns,p99_ns");
+            out.newLine();
+            for (Stat stat : sections.values())
+                writeCsvLine(out, "section", stat);
+            for (Stat stat : sortedRules())
+                writeCsvLine(out, "rule", stat);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static void writeCsvLine(BufferedWriter out, String type, Stat stat)
+            throws IOException {
+        out.write(type + ",\"" + stat.name.replace("\"", "\"\"") + "\","
+                + stat.count + "," + stat.hits + ","
+                + String.format("%.4f", stat.hitRatio()) + "," + stat.total
+                + "," + stat.average() + "," + stat.max + ","
+                + stat.percentile(50) + "," + stat.percentile(90) + ","
+                + stat.percentile(99));
+        out.newLine();
+    }
+}
@@ -0,0 +1,247 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import com.gmail.zariust.common.Verbosity;
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.RegionResultSet;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+
+/**
+ * A chunk grid over the bounding boxes of a world's WorldGuard regions, so
+ * that finding the regions at a location only tests the regions that overlap
+ * that chunk rather than every region in the world.
+ *
+ * The index is brought up to date with the RegionManager whenever the number
+ * of regions changes or a region command has been used (see
+ * OdRegionIndexListener), and otherwise at least once every few seconds to
+ * catch regions redefined by other plugins; only regions that were added,
+ * removed or replaced since the last check are re-indexed.
+ */
+public class RegionIndex {
+    private static final String                 GLOBAL_REGION      = "__global__";
+    // Regions covering more chunks than this are kept in a plain list
+    private static final int                    MAX_GRID_CHUNKS    = 1024;
+    private static final long                   REFRESH_INTERVAL   = 5000;                                // ms
+
+    private static final Map<World, RegionIndex> indexes           = new WeakHashMap<World, RegionIndex>();
+
+    private final Map<String, Entry>            entries            = new HashMap<String, Entry>();
+    private final Map<Long, List<Entry>>        grid               = new HashMap<Long, List<Entry>>();
+    private final List<Entry>                   large              = new ArrayList<Entry>();
+    // not in the grid, WorldGuard applies it to the whole world
+    private ProtectedRegion                     global;
+    private RegionManager                       manager;
+    private int                                 regionCount;
+    private long                                lastRefresh;
+
+    private static class Entry {
+        final String          name;      // lower case, for region conditions
+        final ProtectedRegion region;
+        final int             minX, minZ, maxX, maxZ; // in chunks
+        final boolean         isLarge;
+
+        Entry(ProtectedRegion region) {
+            this.region = region;
+            name = region.getId().toLowerCase();
+            BlockVector min = region.getMinimumPoint();
+            BlockVector max = region.getMaximumPoint();
+            minX = min.getBlockX() >> 4;
+            minZ = min.getBlockZ() >> 4;
+            maxX = max.getBlockX() >> 4;
+            maxZ = max.getBlockZ() >> 4;
+            isLarge = (long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_GRID_CHUNKS;
+        }
+    }
+
+    /**
+     * Get the (up to date) region index for a world.
+     *
+     * @param world
+     *            The world to get the index for.
+     * @return The index, or null if WorldGuard isn't loaded or has no regions
+     *         for the world.
+     */
+    public static RegionIndex get(World world) {
+        if (!Dependencies.hasWorldGuard() || world == null)
+            return null;
+        RegionManager manager = Dependencies.getWorldGuard()
+                .getGlobalRegionManager().get(world);
+        if (manager == null)
+            return null;
+        RegionIndex index = indexes.get(world);
+        if (index == null) {
+            index = new RegionIndex();
+            indexes.put(world, index);
+        }
+        index.refresh(manager);
+        return index;
+    }
+
+    /**
+     * Throw away all indexes, eg. when WorldGuard may have been reloaded.
+     */
+    public static void clear() {
+        indexes.clear();
+    }
+
+    /**
+     * Check all indexes against their RegionManager on next use, eg. when a
+     * region may have been redefined.
+     */
+    public static void invalidate() {
+        for (RegionIndex index : indexes.values())
+            index.lastRefresh = 0;
+    }
+
+    private void refresh(RegionManager manager) {
+        long now = System.currentTimeMillis();
+        // a new manager (WorldGuard reload) or a region added or removed is
+        // picked up straight away
+        if (manager == this.manager && manager.size() == regionCount
+                && lastRefresh != 0 && now - lastRefresh < REFRESH_INTERVAL)
+            return;
+        lastRefresh = now;
+        this.manager = manager;
+
+        Map<String, ProtectedRegion> regions = manager.getRegions();
+        regionCount = regions.size();
+        global = regions.get(GLOBAL_REGION);
+
+        int changed = 0;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> indexed = it.next();
+            if (regions.get(indexed.getKey()) != indexed.getValue().region) {
+                unindex(indexed.getValue());
+                it.remove();
+                changed++;
+            }
+        }
+        for (Map.Entry<String, ProtectedRegion> region : regions.entrySet()) {
+            if (entries.containsKey(region.getKey())
+                    || region.getKey().equalsIgnoreCase(GLOBAL_REGION))
+                continue;
+            Entry entry = new Entry(region.getValue());
+            index(entry);
+            entries.put(region.getKey(), entry);
+            changed++;
+        }
+        if (changed > 0)
+            Log.logInfo("RegionIndex: re-indexed " + changed
+                    + " region(s), total " + entries.size() + ".",
+                    Verbosity.HIGHEST);
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private void index(Entry entry) {
+        if (entry.isLarge) {
+            large.add(entry);
+            return;
+        }
+        for (int x = entry.minX; x <= entry.maxX; x++) {
+            for (int z = entry.minZ; z <= entry.maxZ; z++) {
+                Long key = chunkKey(x, z);
+                List<Entry> cell = grid.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<Entry>(2);
+                    grid.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    private void unindex(Entry entry) {
+        if (entry.isLarge) {
+            large.remove(entry);
+            return;
+        }
+        for (int x = entry.minX; x <= entry.maxX; x++) {
+            for (int z = entry.minZ; z <= entry.maxZ; z++) {
+                Long key = chunkKey(x, z);
+                List<Entry> cell = grid.get(key);
+                if (cell == null)
+                    continue;
+                cell.remove(entry);
+                if (cell.isEmpty())
+                    grid.remove(key);
+            }
+        }
+    }
+
+    private List<Entry> find(Location loc) {
+        List<Entry> found = new ArrayList<Entry>();
+        Vector vec = new Vector(loc.getX(), loc.getY(), loc.getZ());
+        List<Entry> cell = grid.get(chunkKey(loc.getBlockX() >> 4,
+                loc.getBlockZ() >> 4));
+        if (cell != null) {
+            for (Entry entry : cell)
+                if (entry.region.contains(vec))
+                    found.add(entry);
+        }
+        for (Entry entry : large)
+            if (entry.region.contains(vec))
+                found.add(entry);
+        return found;
+    }
+
+    /**
+     * @param loc
+     *            The location to check.
+     * @return The (lower case) names of the regions containing the location.
+     */
+    public Set<String> getRegionNames(Location loc) {
+        Set<String> names = new HashSet<String>();
+        for (Entry entry : find(loc))
+            names.add(entry.name);
+        return names;
+    }
+
+    /**
+     * The equivalent of RegionManager.getApplicableRegions(), for flag checks.
+     *
+     * @param loc
+     *            The location to check.
+     * @return The set of regions containing the location (and the global
+     *         region, if there is one).
+     */
+    public ApplicableRegionSet getApplicableRegions(Location loc) {
+        List<ProtectedRegion> regions = new ArrayList<ProtectedRegion>();
+        for (Entry entry : find(loc))
+            regions.add(entry.region);
+        return new RegionResultSet(regions, global);
+    }
+}
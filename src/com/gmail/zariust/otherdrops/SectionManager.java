@@ -7,7 +7,6 @@ import static com.gmail.zariust.common.Verbosity.HIGHEST;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -24,6 +23,7 @@ import org.bukkit.inventory.EntityEquipment;
 
 import com.gmail.zariust.otherdrops.event.CustomDrop;
 import com.gmail.zariust.otherdrops.event.DropRunner;
+import com.gmail.zariust.otherdrops.event.DropScheduler;
 import com.gmail.zariust.otherdrops.event.DropsList;
 import com.gmail.zariust.otherdrops.event.GroupDropEvent;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
@@ -48,16 +48,24 @@ public class SectionManager {
      *            The actual drop.
      */
     public void performDrop(OccurredEvent occurence) {
+        long time = Profiler.start();
+        boolean dropped = runDrops(occurence);
+        if (time != 0)
+            Profiler.stop("performDrop", occurence.getTrigger(),
+                    occurence.getTarget() == null ? null : occurence
+                            .getTarget().getKey(), time, dropped);
+    }
+
+    /**
+     * @return True if any drops were scheduled.
+     */
+    private boolean runDrops(OccurredEvent occurence) {
         DropsList customDrops = parent.config.blocksHash.getList(
                 occurence.getTrigger(), occurence.getTarget());
         if (customDrops == null) {
-            if (OtherDropsConfig.verbosity.exceeds(HIGH)) { // check verbosity
-                                                            // outside logInfo
-                                                            // so that
-                                                            // "toString()"
-                                                            // functions are
-                                                            // processed
-                                                            // otherwise
+            if (Log.isLogging(HIGHEST)) { // check verbosity outside logInfo so
+                                          // that "toString()" functions are
+                                          // not processed otherwise
                 // set spawn event log message to extreme as otherwise too
                 // common
                 if (occurence.getEvent() instanceof CreatureSpawnEvent)
@@ -83,10 +91,10 @@ public class SectionManager {
                                     .getTool().toString())
                             + ") no potential drops found", HIGHEST);
             }
-            return; // TODO: if no drops, just return - is this right?
+            return false; // TODO: if no drops, just return - is this right?
         }
         // TODO: return a list of drops found? difficult due to multi-classes?
-        if (OtherDropsConfig.verbosity.exceeds(HIGH))
+        if (Log.isLogging(HIGH))
             Log.logInfo(
                     "PerformDrop - potential drops found: "
                             + customDrops.toString()
@@ -114,7 +122,7 @@ public class SectionManager {
                     }
 
                     if (any.except.contains(compareTo)) {
-                        return;
+                        return false;
                     }
                 }
             }
@@ -122,8 +130,12 @@ public class SectionManager {
 
         DropRunner.defaultDamageDone = false;
         // Loop through the drops and check for a match, process uniques, etc
+        long time = Profiler.start();
         List<SimpleDrop> scheduledDrops = gatherDrops(customDrops, occurence);
-        if (OtherDropsConfig.verbosity.exceeds(HIGHEST))
+        if (time != 0)
+            Profiler.stop("gatherDrops", occurence.getTrigger(), occurence
+                    .getTarget().getKey(), time, !scheduledDrops.isEmpty());
+        if (Log.isLogging(HIGHEST))
             Log.logInfo(
                     "PerformDrop: scheduled drops=" + scheduledDrops.toString(),
                     HIGHEST);
@@ -148,8 +160,9 @@ public class SectionManager {
         }
 
         for (SimpleDrop simpleDrop : scheduledDrops) {
-            Log.logInfo("PerformDrop: scheduling " + simpleDrop.getDropName(),
-                    HIGH);
+            if (Log.isLogging(HIGH))
+                Log.logInfo("PerformDrop: scheduling "
+                        + simpleDrop.getDropName(), HIGH);
             scheduleDrop(occurence, simpleDrop, defaultDrop);
         }
 
@@ -190,11 +203,13 @@ public class SectionManager {
         // listener
         if (occurence.getEvent() instanceof EntityExplodeEvent)
             occurence.setCancelled(false);
-        Log.logInfo(
-                "PerformDrop: finished. defaultdrop=" + defaultDrop
-                        + " dropcount=" + dropCount + " cancelled="
-                        + occurence.isCancelled() + " denied="
-                        + occurence.isDenied(), HIGH);
+        if (Log.isLogging(HIGH))
+            Log.logInfo(
+                    "PerformDrop: finished. defaultdrop=" + defaultDrop
+                            + " dropcount=" + dropCount + " cancelled="
+                            + occurence.isCancelled() + " denied="
+                            + occurence.isDenied(), HIGH);
+        return !scheduledDrops.isEmpty();
     }
 
     /**
@@ -213,9 +228,10 @@ public class SectionManager {
                 || occurence.getEvent() instanceof PlayerFishEvent) {
             if (occurence.getTool().getType() != ItemCategory.EXPLOSION) {
 
-                Log.logInfo(
-                        "PerformDrop: blockbreak or fishing - not default drop - cancelling event (dropcount="
-                                + dropCount + ").", HIGH);
+                if (Log.isLogging(HIGH))
+                    Log.logInfo(
+                            "PerformDrop: blockbreak or fishing - not default drop - cancelling event (dropcount="
+                                    + dropCount + ").", HIGH);
                 if (occurence.getEvent() instanceof PlayerFishEvent) {
                     PlayerFishEvent pfe = (PlayerFishEvent) occurence
                             .getEvent();
@@ -303,10 +319,13 @@ public class SectionManager {
         // into two lists
         // Note: since we don't know if this drop will be cleared by uniques,
         // don't do any events in here
-        for (CustomDrop customDrop : customDrops) {
+        for (CustomDrop customDrop : customDrops.getCandidates(occurence)) {
             if (customDrop instanceof GroupDropEvent) {
                 GroupDropEvent groupCustomDrop = (GroupDropEvent) customDrop;
-                if (groupCustomDrop.matches(occurence)) { // FIXME: include
+                long time = Profiler.start();
+                boolean matched = groupCustomDrop.matches(occurence);
+                Profiler.stopRule(groupCustomDrop, time, matched);
+                if (matched) { // FIXME: include
                                                           // chance check at top
                                                           // of matches
                     // OtherDrops.logInfo("PerformDrop: found group ("+groupCustomDrop.getGroupsString()+")",
@@ -329,7 +348,10 @@ public class SectionManager {
                     continue;
                 }
             } else { // SimpleDrop - so add to a list
-                if (customDrop.matches(occurence)) {
+                long time = Profiler.start();
+                boolean matched = customDrop.matches(occurence);
+                Profiler.stopRule(customDrop, time, matched);
+                if (matched) {
                     matchedDrops.add(customDrop);
                     if (!customDrop.getFlagState().continueDropping) { // This
                                                                        // means
@@ -385,9 +407,9 @@ public class SectionManager {
 
     public CustomDrop getSingleRandomUnique(List<CustomDrop> uniqueList) {
         CustomDrop random = uniqueList.get(OtherDrops.rng.nextInt(uniqueList.size()));
-        Log.logInfo(
-                "PerformDrop: getunique, selecting: " + random.getDropName(),
-                HIGHEST);
+        if (Log.isLogging(HIGHEST))
+            Log.logInfo("PerformDrop: getunique, selecting: "
+                    + random.getDropName(), HIGHEST);
         return random;
     }
 
@@ -409,10 +431,7 @@ public class SectionManager {
         // schedule the task - NOTE: this must be a sync task due to the changes
         // made in the performActualDrop function
         if (schedule > 0.0)
-            Bukkit.getServer()
-                    .getScheduler()
-                    .scheduleSyncDelayedTask(OtherDrops.plugin, dropRunner,
-                            schedule);
+            DropScheduler.schedule(dropRunner.delayed(), schedule);
         else
             dropRunner.run();
         // }
@@ -0,0 +1,183 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+
+/**
+ * The positions of all mob spawners in loaded chunks, so that checking for a
+ * spawner near a location doesn't have to look at every block around it.
+ *
+ * Chunks are indexed from their tile entity list when they load or are
+ * populated (or when first needed, for chunks that were loaded before the
+ * index was in use) and
+ * kept up to date by OdSpawnerIndexListener. Found positions are always
+ * checked against the world, so a spawner removed in some way the listener
+ * doesn't see (eg. by another plugin) is dropped from the index then.
+ */
+public class SpawnerIndex {
+    private static final Map<World, SpawnerIndex> indexes = new WeakHashMap<World, SpawnerIndex>();
+
+    // spawner positions (see pack()) by chunk
+    private final Map<Long, List<Long>>           chunks  = new HashMap<Long, List<Long>>();
+
+    private static SpawnerIndex get(World world) {
+        SpawnerIndex index = indexes.get(world);
+        if (index == null) {
+            index = new SpawnerIndex();
+            indexes.put(world, index);
+        }
+        return index;
+    }
+
+    public static void clear() {
+        indexes.clear();
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    // x & z in 26 bits each, y in 12 bits
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12)
+                | (y & 0xFFF);
+    }
+
+    private static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    private static int unpackZ(long pos) {
+        return (int) (pos << 26 >> 38);
+    }
+
+    private static int unpackY(long pos) {
+        return (int) (pos & 0xFFF);
+    }
+
+    /**
+     * Index the spawners in a chunk (replacing anything already indexed for
+     * it).
+     */
+    public static void chunkLoaded(Chunk chunk) {
+        get(chunk.getWorld()).scan(chunk);
+    }
+
+    /**
+     * Re-index a chunk once world generation has added its dungeons etc.
+     * Population also spills over into the neighbouring chunks at +x/+z, so
+     * those are dropped from the index to be scanned again when needed.
+     */
+    public static void chunkPopulated(Chunk chunk) {
+        SpawnerIndex index = get(chunk.getWorld());
+        index.chunks.remove(chunkKey(chunk.getX() + 1, chunk.getZ()));
+        index.chunks.remove(chunkKey(chunk.getX(), chunk.getZ() + 1));
+        index.chunks.remove(chunkKey(chunk.getX() + 1, chunk.getZ() + 1));
+        index.scan(chunk);
+    }
+
+    public static void chunkUnloaded(Chunk chunk) {
+        SpawnerIndex index = indexes.get(chunk.getWorld());
+        if (index != null)
+            index.chunks.remove(chunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    public static void spawnerPlaced(Block block) {
+        SpawnerIndex index = indexes.get(block.getWorld());
+        if (index == null)
+            return;
+        // if the chunk isn't indexed yet it'll be scanned when needed
+        List<Long> spawners = index.chunks.get(chunkKey(block.getX() >> 4,
+                block.getZ() >> 4));
+        long pos = pack(block.getX(), block.getY(), block.getZ());
+        if (spawners != null && !spawners.contains(pos))
+            spawners.add(pos);
+    }
+
+    public static void spawnerRemoved(Block block) {
+        SpawnerIndex index = indexes.get(block.getWorld());
+        if (index == null)
+            return;
+        List<Long> spawners = index.chunks.get(chunkKey(block.getX() >> 4,
+                block.getZ() >> 4));
+        if (spawners != null)
+            spawners.remove(pack(block.getX(), block.getY(), block.getZ()));
+    }
+
+    private List<Long> scan(Chunk chunk) {
+        List<Long> spawners = new ArrayList<Long>(1);
+        for (BlockState state : chunk.getTileEntities()) {
+            if (state.getType() == Material.MOB_SPAWNER)
+                spawners.add(pack(state.getX(), state.getY(), state.getZ()));
+        }
+        chunks.put(chunkKey(chunk.getX(), chunk.getZ()), spawners);
+        return spawners;
+    }
+
+    /**
+     * Check for a mob spawner within the cube of the given radius around a
+     * location. Chunks that aren't loaded are ignored.
+     *
+     * @param loc
+     *            The location to check around.
+     * @param radius
+     *            The distance from the location (on each axis) to check.
+     * @return True if there's a spawner within radius.
+     */
+    public static boolean isSpawnerNear(Location loc, int radius) {
+        World world = loc.getWorld();
+        SpawnerIndex index = get(world);
+        // same rounding as the original block by block check
+        int x = (int) loc.getX(), y = (int) loc.getY(), z = (int) loc.getZ();
+
+        for (int cx = (x - radius) >> 4; cx <= (x + radius) >> 4; cx++) {
+            for (int cz = (z - radius) >> 4; cz <= (z + radius) >> 4; cz++) {
+                List<Long> spawners = index.chunks.get(chunkKey(cx, cz));
+                if (spawners == null) {
+                    if (!world.isChunkLoaded(cx, cz))
+                        continue;
+                    spawners = index.scan(world.getChunkAt(cx, cz));
+                }
+                Iterator<Long> it = spawners.iterator();
+                while (it.hasNext()) {
+                    long pos = it.next();
+                    int sx = unpackX(pos), sy = unpackY(pos), sz = unpackZ(pos);
+                    if (Math.abs(sx - x) > radius || Math.abs(sy - y) > radius
+                            || Math.abs(sz - z) > radius)
+                        continue;
+                    if (world.getBlockAt(sx, sy, sz).getType() == Material.MOB_SPAWNER)
+                        return true;
+                    it.remove(); // no longer there
+                }
+            }
+        }
+        return false;
+    }
+}
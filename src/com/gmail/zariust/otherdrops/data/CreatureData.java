@@ -18,9 +18,8 @@ package com.gmail.zariust.otherdrops.data;
 
 import static com.gmail.zariust.common.Verbosity.EXTREME;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -51,36 +50,37 @@ import com.gmail.zariust.otherdrops.data.entities.ZombieData;
 // Range only allowed for SHEEP, SLIME, and PIG_ZOMBIE
 public class CreatureData implements Data, RangeableData {
 
-    // Create a map of entity types against data objects
-    private static final Map<EntityType, Class> DATAMAP;
+    // Create a map of entity types against data factories
+    private static final Map<EntityType, CreatureDataFactory> DATAMAP;
 
     // Map of EntityTypes to new class based creature data, for ease of lookup
     // later on
     // note: there should be only one line per entity, or things could get messy
     static {
-        Map<EntityType, Class> aMap = new HashMap<EntityType, Class>();
+        Map<EntityType, CreatureDataFactory> aMap = new EnumMap<EntityType, CreatureDataFactory>(
+                EntityType.class);
 
         // Note: due to difficulties with alternate coding all specific data
         // classes need to manually include a call to either LivingEntityData or
         // AgeableData
 
         // Specific data (+LivingEntity)
-        aMap.put(EntityType.ZOMBIE, ZombieData.class); // includes
+        aMap.put(EntityType.ZOMBIE, ZombieData.FACTORY); // includes
                                                        // LivingEntityData
-        aMap.put(EntityType.PIG_ZOMBIE, PigZombieData.class); // extends Zombie
-        aMap.put(EntityType.CREEPER, CreeperData.class);
-        aMap.put(EntityType.SKELETON, SkeletonData.class); // includes
+        aMap.put(EntityType.PIG_ZOMBIE, PigZombieData.FACTORY); // extends Zombie
+        aMap.put(EntityType.CREEPER, CreeperData.FACTORY);
+        aMap.put(EntityType.SKELETON, SkeletonData.FACTORY); // includes
                                                            // LivingEntityData
         // Specific data (+Ageable(+LivingEntity))
-        aMap.put(EntityType.OCELOT, OcelotData.class);
-        aMap.put(EntityType.PIG, PigData.class);
-        aMap.put(EntityType.SHEEP, SheepData.class);
-        aMap.put(EntityType.VILLAGER, VillagerData.class);
-        aMap.put(EntityType.WOLF, WolfData.class);
-        aMap.put(EntityType.SLIME, SlimeData.class);
-        aMap.put(EntityType.MAGMA_CUBE, SlimeData.class);
-        aMap.put(EntityType.ENDERMAN, EndermanData.class);
-        aMap.put(EntityType.HORSE, HorseData.class);
+        aMap.put(EntityType.OCELOT, OcelotData.FACTORY);
+        aMap.put(EntityType.PIG, PigData.FACTORY);
+        aMap.put(EntityType.SHEEP, SheepData.FACTORY);
+        aMap.put(EntityType.VILLAGER, VillagerData.FACTORY);
+        aMap.put(EntityType.WOLF, WolfData.FACTORY);
+        aMap.put(EntityType.SLIME, SlimeData.FACTORY);
+        aMap.put(EntityType.MAGMA_CUBE, SlimeData.FACTORY);
+        aMap.put(EntityType.ENDERMAN, EndermanData.FACTORY);
+        aMap.put(EntityType.HORSE, HorseData.FACTORY);
 
         // Scan through all entity types and if there's no current mapping
         // then check if it's an Ageable or LivingEntity and assign a mapping
@@ -89,17 +89,17 @@ public class CreatureData implements Data, RangeableData {
                 Class typeClass = type.getEntityClass();
                 if (typeClass != null) {
                     if (Ageable.class.isAssignableFrom(type.getEntityClass())) {
-                        aMap.put(type, AgeableData.class);
+                        aMap.put(type, AgeableData.FACTORY);
                     } else if (LivingEntity.class.isAssignableFrom(type
                             .getEntityClass())) {
-                        aMap.put(type, LivingEntityData.class);
+                        aMap.put(type, LivingEntityData.FACTORY);
                     }
                 }
 
             }
         }
         DATAMAP = Collections.unmodifiableMap(aMap);
-        Log.logInfo("CreatureData map: " + aMap.toString(), Verbosity.EXTREME);
+        Log.logInfo("CreatureData map: " + aMap.keySet().toString(), Verbosity.EXTREME);
     }
     public int                                  data;
     private Boolean                             sheared;
@@ -193,29 +193,14 @@ public class CreatureData implements Data, RangeableData {
     public static Data parse(EntityType creature, String state) {
         // state = state.toUpperCase().replaceAll("[ _-]", "");
 
-        if (DATAMAP.get(creature) != null) {
+        CreatureDataFactory factory = DATAMAP.get(creature);
+        if (factory != null) {
             CreatureData cData = null;
             try {
-                cData = (CreatureData) DATAMAP.get(creature)
-                        .getMethod("parseFromString", String.class)
-                        .invoke(null, state);
-            } catch (IllegalArgumentException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (SecurityException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (InvocationTargetException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (NoSuchMethodException e) {
-                // TODO Auto-generated catch block
+                cData = factory.parseFromString(state);
+            } catch (RuntimeException e) {
                 e.printStackTrace();
             }
-            ;
 
             /*
              * Attempting to set a list of data classes so we can automatically
@@ -282,29 +267,14 @@ public class CreatureData implements Data, RangeableData {
         if (creatureType == null)
             return new CreatureData(0);
 
-        if (DATAMAP.get(entity.getType()) != null) {
+        CreatureDataFactory factory = DATAMAP.get(creatureType);
+        if (factory != null) {
             CreatureData cData = null;
             try {
-                cData = (CreatureData) DATAMAP.get(entity.getType())
-                        .getMethod("parseFromEntity", Entity.class)
-                        .invoke(null, entity);
-            } catch (IllegalArgumentException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (SecurityException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (InvocationTargetException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            } catch (NoSuchMethodException e) {
-                // TODO Auto-generated catch block
+                cData = factory.parseFromEntity(entity);
+            } catch (RuntimeException e) {
                 e.printStackTrace();
             }
-            ;
             if (cData == null)
                 return new CreatureData(0);
 
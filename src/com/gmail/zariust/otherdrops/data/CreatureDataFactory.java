@@ -0,0 +1,36 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.data;
+
+import org.bukkit.entity.Entity;
+
+/**
+ * Creates the creature data for one type of mob - each of the classes in
+ * data.entities has one of these (as FACTORY) which CreatureData registers
+ * against the entity types it handles.
+ */
+public interface CreatureDataFactory {
+    /**
+     * @return The data for an actual entity, or null if it can't be read.
+     */
+    CreatureData parseFromEntity(Entity entity);
+
+    /**
+     * @return The data for a config string, or null if it's not valid.
+     */
+    CreatureData parseFromString(String state);
+}
@@ -8,6 +8,7 @@ import org.bukkit.entity.Player;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 
 /**
@@ -18,6 +19,18 @@ import com.gmail.zariust.otherdrops.data.Data;
  * 
  */
 public class AgeableData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return AgeableData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return AgeableData.parseFromString(state);
+        }
+    };
+
     Boolean          adult  = null; // null = wildcard
     LivingEntityData leData = null;
 
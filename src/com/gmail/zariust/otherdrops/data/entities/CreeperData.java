@@ -8,9 +8,22 @@ import org.bukkit.entity.Player;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 
 public class CreeperData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return CreeperData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return CreeperData.parseFromString(state);
+        }
+    };
+
     Creeper          dummy;         // used to represent main Entity class for
                                      // this data object
     Boolean          powered = null; // null = wildcard
@@ -12,10 +12,23 @@ import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 import com.gmail.zariust.otherdrops.data.SimpleData;
 
 public class EndermanData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return EndermanData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return EndermanData.parseFromString(state);
+        }
+    };
+
     private MaterialData md       = null;
     private Boolean      canCarry = null;
     LivingEntityData     leData   = null;
@@ -9,9 +9,22 @@ import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 
 public class HorseData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return HorseData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return HorseData.parseFromString(state);
+        }
+    };
+
     Horse.Color horseColor = null; // null = wildcard
     Horse.Style horseStyle = null; // null = wildcard
     Horse.Variant horseVariant = null; // null = wildcard
@@ -14,12 +14,25 @@ import com.gmail.zariust.otherdrops.EntityWrapper;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 import com.gmail.zariust.otherdrops.drop.ItemDrop;
 import com.gmail.zariust.otherdrops.options.IntRange;
 import com.gmail.zariust.otherdrops.things.ODVariables;
 
 public class LivingEntityData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return LivingEntityData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return LivingEntityData.parseFromString(state);
+        }
+    };
+
     Double maxHealth = null;
     CreatureEquipment equip      = null;
     String            customName = null;
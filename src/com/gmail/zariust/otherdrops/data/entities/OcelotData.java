@@ -8,9 +8,22 @@ import org.bukkit.entity.Player;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 
 public class OcelotData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return OcelotData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return OcelotData.parseFromString(state);
+        }
+    };
+
     Ocelot.Type type  = null; // null = wildcard
     Boolean     adult = null;
     Boolean     tamed = null;
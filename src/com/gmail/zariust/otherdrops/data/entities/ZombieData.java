@@ -8,9 +8,22 @@ import org.bukkit.entity.Zombie;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
+import com.gmail.zariust.otherdrops.data.CreatureDataFactory;
 import com.gmail.zariust.otherdrops.data.Data;
 
 public class ZombieData extends CreatureData {
+    public static final CreatureDataFactory FACTORY = new CreatureDataFactory() {
+        @Override
+        public CreatureData parseFromEntity(Entity entity) {
+            return ZombieData.parseFromEntity(entity);
+        }
+
+        @Override
+        public CreatureData parseFromString(String state) {
+            return ZombieData.parseFromString(state);
+        }
+    };
+
     Boolean          villager = null; // Is this zombie a villager? null =
                                       // wildcard
     Boolean          adult    = null; // Zombie's are not "Ageable" - baby/adult
@@ -27,6 +27,7 @@ import org.bukkit.entity.LivingEntity;
 import com.gmail.zariust.common.CommonEntity;
 import com.gmail.zariust.common.CreatureGroup;
 import com.gmail.zariust.otherdrops.Log;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.data.CreatureData;
 import com.gmail.zariust.otherdrops.data.Data;
 import com.gmail.zariust.otherdrops.options.DoubleRange;
@@ -95,6 +96,7 @@ public class CreatureDrop extends DropType {
         quantity = amount;
         this.setPassenger(passenger);
         this.displayName = ODVariables.preParse(displayName);
+        OtherDropsConfig.countEntities = true; // for custom_spawn_limit
     }
 
     public EntityType getCreature() {
@@ -106,11 +108,29 @@ public class CreatureDrop extends DropType {
     }
 
     @Override
-    protected DropResult performDrop(Target source, Location where,
-            DropFlags flags) {
+    protected DropResult performDrop(Target source, final Location where,
+            final DropFlags flags) {
         DropResult dropResult = DropResult.fromOverride(this.overrideDefault);
         rolledQuantity = quantity.getRandomIn(flags.rng);
-        int amount = rolledQuantity;
+        final int amount = rolledQuantity;
+        if (flags.deferred != null) {
+            flags.deferred.add(new Runnable() {
+                @Override
+                public void run() {
+                    spawn(where, amount, flags);
+                }
+            });
+            if (amount > 0)
+                dropResult.setQuantity(1);
+            return dropResult;
+        }
+
+        dropResult.addWithoutOverride(spawn(where, amount, flags));
+        return dropResult;
+    }
+
+    private DropResult spawn(Location where, int amount, DropFlags flags) {
+        DropResult dropResult = new DropResult();
         while (amount-- > 0) {
             dropResult.addWithoutOverride(dropCreatureWithRider(where,
                     flags.recipient, type, data, this.getPassenger(), null,
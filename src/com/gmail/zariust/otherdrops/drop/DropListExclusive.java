@@ -24,6 +24,7 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.EntityType;
 
+import com.gmail.zariust.common.AliasTable;
 import com.gmail.zariust.common.CreatureGroup;
 import com.gmail.zariust.common.MaterialGroup;
 import com.gmail.zariust.otherdrops.options.DoubleRange;
@@ -40,6 +41,8 @@ import com.gmail.zariust.otherdrops.subject.Target;
 public class DropListExclusive extends DropType {
     private final List<DropType> group;
     private double               percentTotal;
+    // one entry per drop, plus one for dropping nothing
+    private final AliasTable     table;
 
     public DropListExclusive(DropType... drops) {
         this(Arrays.asList(drops));
@@ -54,6 +57,16 @@ public class DropListExclusive extends DropType {
         if (percentTotal < 100)
             percentTotal = 100;
 
+        // if the chances add up to less than 100, the rest is the chance of
+        // nothing being dropped
+        double[] weights = new double[group.size() + 1];
+        double sum = 0;
+        for (int i = 0; i < group.size(); i++) {
+            weights[i] = group.get(i).getChance();
+            sum += weights[i];
+        }
+        weights[group.size()] = percentTotal - sum;
+        table = new AliasTable(weights);
     }
 
     public DropListExclusive(List<Material> materials, int defaultData,
@@ -94,14 +107,9 @@ public class DropListExclusive extends DropType {
             DropFlags flags) {
         // don't set override default here - it's set for each individual drop
         DropResult returnRes = DropResult.fromQuantity(0);
-        double select = flags.rng.nextDouble() * percentTotal, cumul = 0;
-        for (DropType drop : group) {
-            cumul += drop.getChance();
-            if (select <= cumul) {
-                returnRes.add(drop.dropLocal(source, where, 1, flags));
-                break;
-            }
-        }
+        int picked = table.sample(flags.rng);
+        if (picked < group.size())
+            returnRes.add(group.get(picked).dropLocal(source, where, 1, flags));
 
         return returnRes;
     }
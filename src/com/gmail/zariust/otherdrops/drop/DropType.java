@@ -35,6 +35,7 @@ import com.gmail.zariust.common.CommonMaterial;
 import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.ConfigurationNode;
 import com.gmail.zariust.otherdrops.CustomMobSupport;
+import com.gmail.zariust.otherdrops.EntityCounter;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
@@ -58,6 +59,8 @@ public abstract class DropType {
         protected Agent   tool;
         protected String  eventType;
         protected String  spawnReason;        
+        // item & creature spawning to be run later, or null to spawn now
+        protected List<Runnable> deferred;
 
         protected DropFlags(boolean n, boolean s, Random ran, Player who,
                 Agent tool, String eventType, String spawnReason, String victim) {
@@ -75,6 +78,16 @@ public abstract class DropType {
             return eventType;
         }
 
+        /**
+         * Have item and creature drops add their spawning to the given list
+         * rather than spawning straight away. Everything else about the drop
+         * (chance, quantity, override default) is still decided in drop().
+         */
+        public DropFlags deferSpawning(List<Runnable> spawns) {
+            deferred = spawns;
+            return this;
+        }
+
         protected String getRecipientName() {
             if (recipient == null)
                 return "";
@@ -137,10 +150,11 @@ public abstract class DropType {
 
         if (chance < 100.0) {
             double rolledChance = flags.rng.nextDouble();
-            Log.logInfo("Rolling chance: checking " + rolledChance + " <= "
-                    + (chance / 100) + " ("
-                    + (!(rolledChance > chance / 100.0)) + ")",
-                    Verbosity.HIGHEST);
+            if (Log.isLogging(Verbosity.HIGHEST))
+                Log.logInfo("Rolling chance: checking " + rolledChance
+                        + " <= " + (chance / 100) + " ("
+                        + (!(rolledChance > chance / 100.0)) + ")",
+                        Verbosity.HIGHEST);
             if (rolledChance > chance / 100.0) {
                 Log.logInfo("Failed roll, returning...", Verbosity.HIGHEST);
                 return DropResult.fromQuantity(-1);
@@ -243,15 +257,30 @@ public abstract class DropType {
         DropResult dropResult = new DropResult();
         World in = where.getWorld();
 
-        Log.dMsg("DROP MOB: spawnreason: "+spawnReason);
+        if (Log.isLogging(Verbosity.HIGHEST))
+            Log.dMsg("DROP MOB: spawnreason: "+spawnReason);
         // if this drop is due to a natural spawn, ensure the OD mob limit is not exceeeded
-        if (owner == null && (spawnReason.isEmpty() || spawnReason.equalsIgnoreCase("natural"))
-                && in.getLivingEntities().size() > OtherDropsConfig.globalCustomSpawnLimit) {
-            Log.logInfo("Warning: cannot spawn mob as custom_spawn_limit ("
-                    + OtherDropsConfig.globalCustomSpawnLimit
-                    + ") exceeded (current count="
-                    + in.getLivingEntities().size() + ").", Verbosity.HIGHEST);
-            return dropResult;
+        if (owner == null && (spawnReason.isEmpty() || spawnReason.equalsIgnoreCase("natural"))) {
+            int count = EntityCounter.count(in);
+            if (count > OtherDropsConfig.globalCustomSpawnLimit) {
+                if (Log.isLogging(Verbosity.HIGHEST))
+                    Log.logInfo("Warning: cannot spawn mob as custom_spawn_limit ("
+                            + OtherDropsConfig.globalCustomSpawnLimit
+                            + ") exceeded (current count=" + count + ").",
+                            Verbosity.HIGHEST);
+                return dropResult;
+            }
+            if (OtherDropsConfig.globalCustomSpawnLimitChunk > 0) {
+                count = EntityCounter.count(where.getChunk());
+                if (count > OtherDropsConfig.globalCustomSpawnLimitChunk) {
+                    if (Log.isLogging(Verbosity.HIGHEST))
+                        Log.logInfo("Warning: cannot spawn mob as custom_spawn_limit_chunk ("
+                                + OtherDropsConfig.globalCustomSpawnLimitChunk
+                                + ") exceeded (current count=" + count + ").",
+                                Verbosity.HIGHEST);
+                    return dropResult;
+                }
+            }
         }
         Entity mob = null;
         
@@ -127,8 +127,8 @@ public class ItemDrop extends DropType {
     }
 
     @Override
-    protected DropResult performDrop(Target source, Location where,
-            DropFlags flags) {
+    protected DropResult performDrop(Target source, final Location where,
+            final DropFlags flags) {
         DropResult dropResult = DropResult
                 .getFromOverrideDefault(this.overrideDefault);
         if (material == null || quantity.getMax() == 0)
@@ -137,7 +137,7 @@ public class ItemDrop extends DropType {
         if (material == Material.AIR)
             dropResult.setOverrideDefault(true);
 
-        ItemStack stack = getItem(source); // get the item stack with relevant
+        final ItemStack stack = getItem(source); // get the item stack with relevant
                                            // enchantments and/or metadata
         int count = 1; // if DropSpread is false we drop a single (multi-item)
                        // stack
@@ -148,6 +148,26 @@ public class ItemDrop extends DropType {
             count = rolledQuantity; // set #times to drop = #items to be dropped
         }
 
+        if (flags.deferred != null) {
+            final int times = count;
+            flags.deferred.add(new Runnable() {
+                @Override
+                public void run() {
+                    spawn(where, stack, times, flags);
+                }
+            });
+            if (count > 0)
+                dropResult.setQuantity(1);
+            return dropResult;
+        }
+
+        dropResult.addWithoutOverride(spawn(where, stack, count, flags));
+        return dropResult;
+    }
+
+    private DropResult spawn(Location where, ItemStack stack, int count,
+            DropFlags flags) {
+        DropResult dropResult = new DropResult();
         while (count-- > 0)
             dropResult.addWithoutOverride(drop(where, stack, flags.naturally));
 
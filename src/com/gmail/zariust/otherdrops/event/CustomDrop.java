@@ -19,12 +19,15 @@ package com.gmail.zariust.otherdrops.event;
 import static com.gmail.zariust.common.Verbosity.HIGHEST;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
@@ -33,11 +36,10 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
 import com.gmail.zariust.common.Verbosity;
-import com.gmail.zariust.otherdrops.Dependencies;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
-import com.gmail.zariust.otherdrops.data.Data;
-import com.gmail.zariust.otherdrops.event.ExclusiveMap.ExclusiveKey;
+import com.gmail.zariust.otherdrops.PermissionCache;
+import com.gmail.zariust.otherdrops.Profiler;
 import com.gmail.zariust.otherdrops.options.Comparative;
 import com.gmail.zariust.otherdrops.options.Flag;
 import com.gmail.zariust.otherdrops.options.IntRange;
@@ -64,7 +66,21 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
                                                                       // - use
                                                                       // permissions
     private Map<String, Boolean>    permissions;
+    // compiled from the maps above when they're set, so that matching
+    // doesn't allocate - null if the map is null
+    private EnumSet<Weather>        weatherMatches;
+    private EnumSet<BlockFace>      faceMatches;
+    private EnumSet<Biome>          biomeMatches;
+    private Set<World>              worldsIncluded, worldsExcluded;
+    private boolean                 worldsDefault;
+    private String[]                regionsIncluded, regionsExcluded;
+    private long[]                  timesIncluded, timesExcluded;    // min/max pairs
     private Set<Flag>               flags;
+    // compiled from flags: the set flags in checking order, and bits by
+    // flag ordinal for hasFlag()
+    private Flag[]                  activeFlags = new Flag[0];
+    private final BitSet            flagBits    = new BitSet();
+    private boolean                 inMobArenaFlag;
     private final Flag.FlagState    flagState = new Flag.FlagState();
     private Comparative             height;
     private Comparative             attackRange;
@@ -91,12 +107,18 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
     // Conditions
     @Override
     public boolean matches(AbstractDropEvent other) {
+        // Each stage is timed separately when the profiler is running (a no-op
+        // otherwise)
+        long time = Profiler.start();
         // TODO: not as elegant as the single liner but needed for debugging
-        Double rolledValue = rng.nextDouble();
+        double rolledValue = rng.nextDouble();
         boolean chancePassed = rolledValue <= chance / 100.0;
+        time = Profiler.lap("matches.chance", time);
         if (!chancePassed) {
-            Log.logInfo("Drop failed due to chance (" + String.valueOf(chance)
-                    + ", rolled: " + rolledValue * 100 + ")", HIGHEST);
+            if (Log.isLogging(HIGHEST))
+                Log.logInfo("Drop failed due to chance ("
+                        + String.valueOf(chance) + ", rolled: " + rolledValue
+                        * 100 + ")", HIGHEST);
             return false;
         }
 
@@ -108,50 +130,69 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
             OccurredEvent drop = (OccurredEvent) other;
             currentEvent = drop;
 
-            if (!isTool(drop.getTool()))
-                return false; // TODO: log message is inside isTool check - do
-                              // this for all?
-            if (!isWorld(drop.getWorld())) {
-                Log.logInfo("CustomDrop.matches(): world match failed.",
-                        HIGHEST);
-                return false;
+            // Only ask the event for the values a condition is set for, as
+            // OccurredEvent works most of them out on demand
+
+            // The tool & world are the same for every event in a batch (eg.
+            // the blocks of an explosion) so only check them once
+            Boolean shared = drop.getSharedMatch(this);
+            boolean passed;
+            if (shared == null) {
+                passed = isTool(drop.getTool());
+                // TODO: log message is inside isTool check - do this for all?
+                time = Profiler.lap("matches.tool", time);
+                if (passed) {
+                    passed = isWorld(drop.getWorld());
+                    time = Profiler.lap("matches.world", time);
+                    if (!passed)
+                        Log.logInfo("CustomDrop.matches(): world match failed.",
+                                HIGHEST);
+                }
+                drop.setSharedMatch(this, passed);
+            } else {
+                passed = shared;
             }
-            if (!isRegion(drop.getRegions())) {
+            if (!passed)
+                return false;
+            passed = regions == null || isRegion(drop.getRegions());
+            time = Profiler.lap("matches.region", time);
+            if (!passed) {
                 Log.logInfo("CustomDrop.matches(): region match failed.",
                         HIGHEST);
                 return false;
             }
-            if (!isWeather(drop.getWeather())) {
+            if (weather != null && !isWeather(drop.getWeather())) {
                 Log.logInfo("CustomDrop.matches(): weather match failed.",
                         HIGHEST);
                 return false;
             }
-            if (!isBlockFace(drop.getFace())) {
+            if (faces != null && !isBlockFace(drop.getFace())) {
                 Log.logInfo("CustomDrop.matches(): blockface match failed.",
                         HIGHEST);
                 return false;
             }
-            if (!isBiome(drop.getBiome())) {
-                Log.logInfo(
-                        "CustomDrop.matches(): biome match failed (current biome="
-                                + drop.getBiome() + ", list: " + biomes.toString() + ")", HIGHEST);
+            if (biomes != null && !isBiome(drop.getBiome())) {
+                Log.logInfo(HIGHEST,
+                        "CustomDrop.matches(): biome match failed (current biome={}, list: {})",
+                        drop.getBiome(), biomes);
                 return false;
             }
-            if (!isTime(drop.getTime())) {
+            if (times != null && !isTime(drop.getTime())) {
                 Log.logInfo("CustomDrop.matches(): time match failed.", HIGHEST);
                 return false;
             }
-            if (!isHeight(drop.getHeight())) {
+            if (height != null && !isHeight(drop.getHeight())) {
                 Log.logInfo("CustomDrop.matches(): height match failed.",
                         HIGHEST);
                 return false;
             }
-            if (!isAttackInRange((int) drop.getAttackRange())) {
+            if (attackRange != null
+                    && !isAttackInRange((int) drop.getAttackRange())) {
                 Log.logInfo("CustomDrop.matches(): range match failed.",
                         HIGHEST);
                 return false;
             }
-            if (!isLightEnough(drop.getLightLevel())) {
+            if (lightLevel != null && !isLightEnough(drop.getLightLevel())) {
                 Log.logInfo("CustomDrop.matches(): lightlevel match failed.",
                         HIGHEST);
                 return false;
@@ -167,30 +208,29 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
                         HIGHEST);
                 return false;
             }
-            if (!checkFlags(drop)) {
+            time = Profiler.lap("matches.properties", time);
+            passed = checkFlags(drop);
+            time = Profiler.lap("matches.flags", time);
+            if (!passed) {
                 Log.logInfo("CustomDrop.matches(): a flag match failed.",
                         HIGHEST);
                 return false;
             }
 
-            boolean inMobArenaFlag = false;
-            for (Flag activeflag : flags) {
-                if (activeflag.toString().matches("IN_MOB_ARENA"))
-                    inMobArenaFlag = true;
-            }
-
-            if (!inMobArenaFlag)
-                if (Dependencies.hasMobArena())
-                    if (Dependencies.getMobArenaHandler().inRunningRegion(
-                            this.currentEvent.getLocation()))
-                        return false;
+            if (!inMobArenaFlag && currentEvent.isInMobArena())
+                return false;
+            time = Profiler.lap("matches.mobarena", time);
 
+            passed = true;
             for (Condition condition : conditions) {
-                if (!condition.check(this, currentEvent))
-                    return false;
+                if (!currentEvent.checkCondition(condition, this)) {
+                    passed = false;
+                    break;
+                }
             }
+            Profiler.lap("matches.conditions", time);
 
-            return true;
+            return passed;
         }
 
         Log.logInfo(
@@ -239,15 +279,30 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
             }
         }
         if (!positiveMatch)
-            Log.logInfo(
-                    "Tool match = " + positiveMatch + " - tool="
-                            + String.valueOf(tool) + " tools="
-                            + tools.toString(), HIGHEST);
+            Log.logInfo(HIGHEST, "Tool match = false - tool={} tools={}",
+                    tool, tools);
         return positiveMatch;
     }
 
     public void setWorlds(Map<World, Boolean> places) {
         this.worlds = places;
+        worldsIncluded = null;
+        worldsExcluded = null;
+        if (places == null)
+            return;
+        worldsIncluded = Collections
+                .newSetFromMap(new IdentityHashMap<World, Boolean>());
+        worldsExcluded = Collections
+                .newSetFromMap(new IdentityHashMap<World, Boolean>());
+        for (Map.Entry<World, Boolean> entry : places.entrySet()) {
+            if (entry.getKey() == null)
+                continue;
+            if (entry.getValue())
+                worldsIncluded.add(entry.getKey());
+            else
+                worldsExcluded.add(entry.getKey());
+        }
+        worldsDefault = Boolean.TRUE.equals(places.get(null));
     }
 
     public Map<World, Boolean> getWorlds() {
@@ -259,11 +314,35 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
     }
 
     public boolean isWorld(World world) {
-        return checkList(world, worlds);
+        // same as checkList(world, worlds)
+        if (worlds == null || world == null)
+            return true;
+        if (worldsIncluded.contains(world))
+            return true;
+        if (worldsExcluded.contains(world))
+            return false;
+        return worldsDefault;
     }
 
     public void setRegions(Map<String, Boolean> areas) {
         this.regions = areas;
+        regionsIncluded = null;
+        regionsExcluded = null;
+        if (areas == null)
+            return;
+        List<String> included = new ArrayList<String>();
+        List<String> excluded = new ArrayList<String>();
+        for (String dropRegion : areas.keySet()) {
+            // WorldGuard, at least, stores regions in lower case
+            dropRegion = dropRegion.toLowerCase();
+            // exceptions start with "-" (the value isn't used)
+            if (dropRegion.startsWith("-"))
+                excluded.add(dropRegion.substring(1).intern());
+            else
+                included.add(dropRegion.intern());
+        }
+        regionsIncluded = included.toArray(new String[included.size()]);
+        regionsExcluded = excluded.toArray(new String[excluded.size()]);
     }
 
     public Map<String, Boolean> getRegions() {
@@ -286,78 +365,54 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
         if (regions == null)
             return true;
 
-        Log.logInfo("Regioncheck: inRegions: " + inRegions.toString(),
-                Verbosity.HIGH);
-        Log.logInfo("Regioncheck: dropRegions: " + regions.toString(),
-                Verbosity.HIGH);
-
-        // save the config region keys in a temp list for some reason (can't
-        // remember)
-        HashSet<String> tempConfigRegionKeys = new HashSet<String>();
-        tempConfigRegionKeys.addAll(regions.keySet());
-
-        // set matched flag to false, since we know there's at least something
-        // in the customRegion condition
-        boolean matchedRegion = false;
-        int positiveRegions = 0;
-
-        // loop through each region within the customRegions and check if it
-        // matches all current regions
-        for (String dropRegion : tempConfigRegionKeys) {
-            dropRegion = dropRegion.toLowerCase(); // WorldGuard, at least,
-                                                   // stores regions in lower
-                                                   // case
-            // Check if the entry is an exception (ie. starts with "-")
-            Boolean exception = false;
-            if (dropRegion.startsWith("-")) {
-                Log.logInfo("Checking dropRegion exception: " + dropRegion,
-                        Verbosity.EXTREME);
-                exception = true;
-                dropRegion = dropRegion.substring(1);
-            } else {
-                positiveRegions++;
-                Log.logInfo("Checking dropRegion: " + dropRegion,
-                        Verbosity.EXTREME);
-            }
-
-            if (exception) {
-                if (inRegions.contains(dropRegion)) {
-                    Log.logInfo("Failed check: regions (exception: "
-                            + dropRegion + ")", Verbosity.HIGH);
-                    return false; // if this is an exception and you are in that
-                                  // region then all other checks are moot -
-                                  // hence immediate "return false"
-                } else {
-                    Log.logInfo("Exception check: region " + dropRegion
-                            + " passed", Verbosity.HIGHEST);
-                }
-            } else {
-                if (inRegions.contains(dropRegion)) {
-                    Log.logInfo("In dropRegion: " + dropRegion
-                            + ", setting match=TRUE", Verbosity.HIGHEST);
-                    matchedRegion = true;
-                } else {
-                    // OtherDrops.logInfo("Not in dropRegion: "+dropRegion+", setting match=FALSE",
-                    // Verbosity.HIGHEST);
-                    // matchedRegion = false;
-                }
+        boolean logging = Log.isLogging(Verbosity.HIGH);
+        if (logging) {
+            Log.logInfo(Verbosity.HIGH, "Regioncheck: inRegions: {}", inRegions);
+            Log.logInfo(Verbosity.HIGH, "Regioncheck: dropRegions: {}",
+                    regions);
+        }
 
+        // if this is an exception and you are in that region then all other
+        // checks are moot - hence immediate "return false"
+        for (String dropRegion : regionsExcluded) {
+            if (inRegions.contains(dropRegion)) {
+                if (logging)
+                    Log.logInfo(Verbosity.HIGH,
+                            "Failed check: regions (exception: {})",
+                            dropRegion);
+                return false;
             }
-
         }
 
         // If there were only exception conditions then return true as we
         // haven't been kicked by a matched exception
-        if (positiveRegions < 1)
-            matchedRegion = true;
+        boolean matchedRegion = regionsIncluded.length == 0;
+        for (String dropRegion : regionsIncluded) {
+            if (inRegions.contains(dropRegion)) {
+                if (logging)
+                    Log.logInfo(Verbosity.HIGHEST,
+                            "In dropRegion: {}, setting match=TRUE",
+                            dropRegion);
+                matchedRegion = true;
+                break;
+            }
+        }
 
-        Log.logInfo("Regioncheck: finished. match=" + matchedRegion,
-                Verbosity.HIGH);
+        if (logging)
+            Log.logInfo("Regioncheck: finished. match=" + matchedRegion,
+                    Verbosity.HIGH);
         return matchedRegion;
     }
 
     public void setWeather(Map<Weather, Boolean> sky) {
         this.weather = sky;
+        weatherMatches = null;
+        if (sky == null)
+            return;
+        weatherMatches = EnumSet.noneOf(Weather.class);
+        for (Weather type : Weather.values())
+            if (checkWeather(type, sky))
+                weatherMatches.add(type);
     }
 
     public Map<Weather, Boolean> getWeather() {
@@ -369,20 +424,23 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
     }
 
     public boolean isWeather(Weather sky) {
-        // return checkList(sky, weather); // TODO: (ZAR) doesn't work - but
-        // should, no?
-
         if (weather == null)
             return true;
-        boolean match = weather.get(null);
-        for (Weather type : weather.keySet()) {
-            if (type != null) {
-                if (type.matches(sky)) {
-                    if (weather.get(type))
-                        match = true;
-                    else
-                        return false;
-                }
+        if (sky == null)
+            return Boolean.TRUE.equals(weather.get(null));
+        return weatherMatches.contains(sky);
+    }
+
+    private static boolean checkWeather(Weather sky, Map<Weather, Boolean> list) {
+        // checkList(sky, weather) doesn't work here as weather types can
+        // match more than one sky (eg. STORM)
+        boolean match = Boolean.TRUE.equals(list.get(null));
+        for (Map.Entry<Weather, Boolean> entry : list.entrySet()) {
+            if (entry.getKey() != null && entry.getKey().matches(sky)) {
+                if (entry.getValue())
+                    match = true;
+                else
+                    return false;
             }
         }
         return match;
@@ -390,6 +448,7 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
 
     public void setBlockFace(Map<BlockFace, Boolean> newFaces) {
         this.faces = newFaces;
+        faceMatches = compileList(BlockFace.class, newFaces);
     }
 
     public Map<BlockFace, Boolean> getBlockFaces() {
@@ -401,11 +460,14 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
     }
 
     public boolean isBlockFace(BlockFace face) {
-        return checkList(face, faces);
+        if (faces == null || face == null)
+            return true;
+        return faceMatches.contains(face);
     }
 
     public void setBiome(Map<Biome, Boolean> biome) {
         this.biomes = biome;
+        biomeMatches = compileList(Biome.class, biome);
     }
 
     public Map<Biome, Boolean> getBiome() {
@@ -440,12 +502,69 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
 
     }
 
+    /**
+     * @return The set of values for which checkList(value, list) is true, or
+     *         null if the list is null.
+     */
+    private static <E extends Enum<E>> EnumSet<E> compileList(Class<E> type,
+            Map<E, Boolean> list) {
+        if (list == null)
+            return null;
+        EnumSet<E> result = EnumSet.noneOf(type);
+        if (list.isEmpty())
+            return result;
+        boolean all = Boolean.TRUE.equals(list.get(null));
+        for (E value : type.getEnumConstants()) {
+            Boolean listed = list.get(value);
+            if (listed == null ? all : listed)
+                result.add(value);
+        }
+        return result;
+    }
+
     public boolean isBiome(Biome biome) {
-        return checkList(biome, biomes);
+        if (biomes == null || biome == null)
+            return true;
+        return biomeMatches.contains(biome);
     }
 
     public void setTime(Map<Time, Boolean> time) {
         this.times = time;
+        timesIncluded = null;
+        timesExcluded = null;
+        if (time == null)
+            return;
+        List<Time> included = new ArrayList<Time>();
+        List<Time> excluded = new ArrayList<Time>();
+        for (Map.Entry<Time, Boolean> entry : time.entrySet()) {
+            if (entry.getKey() == null)
+                continue;
+            if (entry.getValue())
+                included.add(entry.getKey());
+            else
+                excluded.add(entry.getKey());
+        }
+        timesIncluded = compileTimes(included);
+        timesExcluded = compileTimes(excluded);
+    }
+
+    private static long[] compileTimes(List<Time> list) {
+        long[] result = new long[list.size() * 2];
+        int i = 0;
+        for (Time time : list) {
+            // a range without bounds contains every time
+            boolean unbounded = time.getMin() == null || time.getMax() == null;
+            result[i++] = unbounded ? Long.MIN_VALUE : time.getMin();
+            result[i++] = unbounded ? Long.MAX_VALUE : time.getMax();
+        }
+        return result;
+    }
+
+    private static boolean inTimes(long time, long[] list) {
+        for (int i = 0; i < list.length; i += 2)
+            if (time >= list[i] && time <= list[i + 1])
+                return true;
+        return false;
     }
 
     public Map<Time, Boolean> getTime() {
@@ -459,16 +578,9 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
     public boolean isTime(long time) {
         if (times == null)
             return true;
-        boolean match = false;
-        for (Time t : times.keySet()) {
-            if (t.contains(time)) {
-                if (times.get(t))
-                    match = true;
-                else
-                    return false;
-            }
-        }
-        return match;
+        if (inTimes(time, timesExcluded))
+            return false;
+        return inTimes(time, timesIncluded);
     }
 
     public void setGroups(Map<String, Boolean> newGroups) {
@@ -503,9 +615,10 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
         if (player == null)
             player = ((PlayerSubject) agent).getPlayer();
 
+        PermissionCache cache = PermissionCache.get(player);
         boolean match = false;
         for (String group : permissionGroups.keySet()) {
-            if (OtherDrops.inGroup(player, group)) {
+            if (cache.inGroup(group)) {
                 if (permissionGroups.get(group))
                     match = true;
                 else
@@ -548,15 +661,17 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
         if (player == null)
             player = ((PlayerSubject) agent).getPlayer();
 
+        PermissionCache cache = PermissionCache.get(player);
         boolean match = false;
-        for (String perm : permissions.keySet()) {
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            String perm = entry.getKey();
             if (perm.startsWith("!")) {
                 perm = perm.substring(1);
             } else {
-                perm = "otherdrops.custom.";
+                perm = "otherdrops.custom." + perm;
             }
-            if (Dependencies.hasPermission(player, perm)) {
-                if (permissions.get(perm))
+            if (cache.hasPermission(perm)) {
+                if (entry.getValue())
                     match = true;
                 else
                     return false;
@@ -609,24 +724,44 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
 
     public void setFlags(Set<Flag> newFlags) {
         flags = newFlags;
+        compileFlags();
     }
 
     public void setFlag(Flag flag) {
         if (flags == null)
             setFlags(new HashSet<Flag>());
         flags.add(flag);
+        compileFlags();
     }
 
     public boolean hasFlag(Flag flag) {
-        if (flags == null)
-            setFlags(new HashSet<Flag>());
-        return flags.contains(flag);
+        return flagBits.get(flag.ordinal());
     }
 
     public void unsetFlag(Flag flag) {
         if (flags == null)
             setFlags(new HashSet<Flag>());
         flags.remove(flag);
+        compileFlags();
+    }
+
+    /**
+     * Work out the flags to check (in the order they were registered) and the
+     * flag bits, so that matching doesn't need to look at the flag set.
+     */
+    private void compileFlags() {
+        flagBits.clear();
+        List<Flag> active = new ArrayList<Flag>();
+        if (flags != null) {
+            for (Flag flag : Flag.values()) {
+                if (flags.contains(flag)) {
+                    active.add(flag);
+                    flagBits.set(flag.ordinal());
+                }
+            }
+        }
+        activeFlags = active.toArray(new Flag[active.size()]);
+        inMobArenaFlag = flagBits.get(Flag.IN_MOB_ARENA.ordinal());
     }
 
     public Flag.FlagState getFlagState() {
@@ -635,47 +770,40 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
 
     public boolean checkFlags(OccurredEvent drop) {
         boolean shouldDrop = true;
-        for (Flag flag : Flag.values()) {
-            // Error: flags.contains(flag) was returning true even for flags not
-            // in the hashset
-            boolean match = false;
-            for (Flag activeflag : flags) {
-                if (activeflag.toString().matches(flag.toString()))
-                    match = true;
-            }
-            // Logic issue: if flags that are not active are processed we may
-            // override continuedropping and dropthis settings...
-            if (match == true) {
-                flag.matches(drop, match, flagState);
-                shouldDrop = shouldDrop && flagState.dropThis;
-            }
+        // only the flags that are set are checked - if flags that are not
+        // active are processed we may override continuedropping and dropthis
+        // settings...
+        for (Flag flag : activeFlags) {
+            flag.matches(drop, true, flagState);
+            shouldDrop = shouldDrop && flagState.dropThis;
         }
         return shouldDrop;
     }
 
     // Chance
     public boolean willDrop(ExclusiveMap exclusives) {
-        if (exclusives != null && exclusiveKey != null) {
-            if (!exclusives.contains(exclusiveKey)) {
-                Data data = currentEvent.getTarget().getData();
-                exclusives.put(exclusiveKey, data);
-            }
-            ExclusiveKey key = exclusives.get(exclusiveKey);
-            key.cumul += getChance();
-            if (key.select > key.cumul) {
-                Log.logInfo("Drop failed due to exclusive key (" + exclusiveKey
-                        + ").", HIGHEST);
+        int slot = -1;
+        if (exclusives != null && exclusiveKey != null)
+            slot = exclusives.getSlot(exclusiveKey);
+        if (slot >= 0) {
+            if (!exclusives.isDrawn(slot))
+                exclusives.draw(slot, currentEvent.getTarget().getData());
+            if (!exclusives.add(slot, getChance())) {
+                Log.logInfo(HIGHEST, "Drop failed due to exclusive key ({}).",
+                        exclusiveKey);
                 return false;
             }
         }
         // TODO: not as elegant as the single liner but needed for debugging
-        Double rolledValue = rng.nextDouble();
+        double rolledValue = rng.nextDouble();
         boolean chancePassed = rolledValue <= chance / 100.0;
         if (chancePassed) {
             return true;
         } else {
-            Log.logInfo("Drop failed due to chance (" + String.valueOf(chance)
-                    + ", rolled: " + rolledValue * 100 + ")", HIGHEST);
+            if (Log.isLogging(HIGHEST))
+                Log.logInfo("Drop failed due to chance ("
+                        + String.valueOf(chance) + ", rolled: " + rolledValue
+                        * 100 + ")", HIGHEST);
             return false;
         }
     }
@@ -750,10 +878,7 @@ public abstract class CustomDrop extends AbstractDropEvent implements Runnable {
         // schedule the task - NOTE: this must be a sync task due to the changes
         // made in the performActualDrop function
         if (schedule > 0.0)
-            Bukkit.getServer()
-                    .getScheduler()
-                    .scheduleSyncDelayedTask(OtherDrops.plugin, dropRunner,
-                            schedule);
+            DropScheduler.schedule(dropRunner.delayed(), schedule);
         else
             dropRunner.run();
         // }
@@ -0,0 +1,74 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.event;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import com.gmail.zariust.otherdrops.options.Weather;
+import com.gmail.zariust.otherdrops.subject.Agent;
+
+/**
+ * Context shared by the OccurredEvents created for each block of one event
+ * (eg. every block in an explosion). The tool, world, weather and time are
+ * worked out once (the weather for the biome at the centre of the event),
+ * and the result of each drop's tool and world check is remembered, as these
+ * are the same for every block in the batch.
+ */
+public class DropBatch {
+    private final Agent                     tool;
+    private final World                     world;
+    private final Weather                   weather;
+    private final long                      time;
+    private final Map<CustomDrop, Boolean>  sharedMatches = new IdentityHashMap<CustomDrop, Boolean>();
+
+    public DropBatch(Agent tool, Location centre) {
+        this.tool = tool;
+        world = centre.getWorld();
+        weather = Weather.match(
+                world.getBiome(centre.getBlockX(), centre.getBlockZ()),
+                world.hasStorm(), world.isThundering());
+        time = world.getTime();
+    }
+
+    public Agent getTool() {
+        return tool;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Weather getWeather() {
+        return weather;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    Boolean getSharedMatch(CustomDrop drop) {
+        return sharedMatches.get(drop);
+    }
+
+    void setSharedMatch(CustomDrop drop, boolean matched) {
+        sharedMatches.put(drop, matched);
+    }
+}
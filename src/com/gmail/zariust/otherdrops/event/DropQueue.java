@@ -0,0 +1,202 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.event;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import org.bukkit.Bukkit;
+
+import com.gmail.zariust.common.Verbosity;
+import com.gmail.zariust.otherdrops.Log;
+import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
+import com.gmail.zariust.otherdrops.Profiler;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+
+/**
+ * Runs the output of drops (spawning, commands, messages, effects) within a
+ * per-tick time budget (drop_tick_budget in the config). Work submitted once
+ * the budget for the current tick is used up is queued and run over the
+ * following ticks instead, lower priorities last. A repeating task resets the
+ * budget at the start of each tick and runs the queue.
+ *
+ * Anything that decides the outcome of the event (deny, cancel, replacement
+ * blocks) must not be submitted here as it has to happen while the event is
+ * still running. Main server thread only.
+ */
+public final class DropQueue implements Runnable {
+    public enum Priority {
+        // run straight away, but still counts towards the budget
+        HIGH,
+        NORMAL,
+        // bulk work such as explosion loot
+        LOW
+    }
+
+    private static final DropQueue   instance   = new DropQueue();
+    @SuppressWarnings("unchecked")
+    private static final Queue<Runnable>[] lanes = new Queue[] {
+            new ArrayDeque<Runnable>(), new ArrayDeque<Runnable>(),
+            new ArrayDeque<Runnable>() };
+
+    private static long              used;
+    private static int               taskId     = -1;
+    // run everything straight away, ignoring the budget (see runAll())
+    private static boolean           immediate;
+
+    private DropQueue() {
+    }
+
+    /**
+     * @return The priority for the output of drops from this event.
+     */
+    public static Priority priorityFor(OccurredEvent evt) {
+        if (evt.isBatched())
+            return Priority.LOW;
+        // triggers where a player is waiting on the result
+        Trigger trigger = evt.getTrigger();
+        if (trigger == Trigger.BREAK || trigger == Trigger.HIT
+                || trigger == Trigger.RIGHT_CLICK
+                || trigger == Trigger.FISH_CAUGHT)
+            return Priority.HIGH;
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Run the task now if there's budget left this tick (or it's HIGH
+     * priority), otherwise queue it for a later tick.
+     */
+    public static void submit(Runnable task, Priority priority) {
+        long budget = budgetNanos();
+        if (budget <= 0 || immediate || taskId == -1) {
+            runTask(task);
+            return;
+        }
+        if (priority == Priority.HIGH
+                || (used < budget && isEmpty())) {
+            runTimed(task);
+            return;
+        }
+        lanes[priority.ordinal()].add(task);
+    }
+
+    /**
+     * Start the task that resets the budget each tick, if there is a budget.
+     * Without the task everything is run straight away.
+     */
+    public static void start(OtherDrops plugin) {
+        stop();
+        if (budgetNanos() <= 0)
+            return;
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin,
+                instance, 1, 1);
+        if (taskId == -1)
+            Log.logWarning("DropQueue: could not start task, drop_tick_budget disabled.",
+                    Verbosity.NORMAL);
+    }
+
+    /**
+     * Stop the task, running anything still queued.
+     */
+    public static void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        used = 0;
+        flush();
+    }
+
+    @Override
+    public void run() {
+        used = 0;
+        long budget = budgetNanos();
+        long time = Profiler.start();
+        int count = 0;
+        for (Queue<Runnable> lane : lanes) {
+            while (!lane.isEmpty() && (budget <= 0 || used < budget)) {
+                runTimed(lane.poll());
+                count++;
+            }
+        }
+        Profiler.stop("DropQueue.run", time, count > 0);
+        if (!isEmpty() && Log.isLogging(Verbosity.HIGHEST))
+            Log.logInfo("DropQueue: ran " + count + " task(s), " + size()
+                    + " left for next tick.", Verbosity.HIGHEST);
+    }
+
+    /**
+     * Run everything still queued, regardless of budget (eg. on shutdown).
+     */
+    public static void flush() {
+        for (Queue<Runnable> lane : lanes) {
+            while (!lane.isEmpty())
+                runTask(lane.poll());
+        }
+    }
+
+    /**
+     * Run the given tasks, and any drop output they submit, straight away
+     * without scheduling anything (eg. while the plugin is being disabled or
+     * reloaded).
+     */
+    static void runAll(List<Runnable> tasks) {
+        boolean wasImmediate = immediate;
+        immediate = true;
+        try {
+            for (Runnable task : tasks)
+                runTask(task);
+        } finally {
+            immediate = wasImmediate;
+        }
+        flush();
+    }
+
+    public static int size() {
+        int size = 0;
+        for (Queue<Runnable> lane : lanes)
+            size += lane.size();
+        return size;
+    }
+
+    private static boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private static long budgetNanos() {
+        return (long) (OtherDropsConfig.gDropTickBudget * 1000000);
+    }
+
+    private static void runTimed(Runnable task) {
+        long start = System.nanoTime();
+        runTask(task);
+        used += System.nanoTime() - start;
+    }
+
+    static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception ex) {
+            Log.logWarning("DropQueue: exception while running drop: "
+                    + ex.toString(), Verbosity.NORMAL);
+            if (OtherDropsConfig.getVerbosity().exceeds(Verbosity.HIGH))
+                ex.printStackTrace();
+        }
+    }
+}
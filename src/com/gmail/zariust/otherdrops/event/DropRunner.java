@@ -5,6 +5,7 @@ import static com.gmail.zariust.common.Verbosity.HIGHEST;
 import static com.gmail.zariust.common.Verbosity.NORMAL;
 import static java.lang.Math.max;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.bukkit.Bukkit;
@@ -23,6 +24,7 @@ import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.PlayerWrapper;
+import com.gmail.zariust.otherdrops.Profiler;
 import com.gmail.zariust.otherdrops.drop.DropResult;
 import com.gmail.zariust.otherdrops.drop.DropType;
 import com.gmail.zariust.otherdrops.drop.DropType.DropFlags;
@@ -50,6 +52,7 @@ public class DropRunner implements Runnable {
     public static boolean defaultDamageDone;
 
     private int droppedQuantity = 0;
+    private boolean delayed = false;
     private double amount = 1;
 
     public DropRunner(OtherDrops otherblocks, OccurredEvent target,
@@ -82,21 +85,76 @@ public class DropRunner implements Runnable {
     @Override
     public void run() {
         Log.logInfo("Starting SimpleDrop...", Verbosity.EXTREME);
-        Player who = getPlayer();
-        Location location = getLocation();
+        long time = Profiler.start();
+        final Player who = getPlayer();
+        final Location location = getLocation();
         checkIfDenied();
 
-        if (!performDrop(who, location))
+        // A delayed drop runs after the event is over, so nothing it does can
+        // change the event any more
+        if (delayed) {
+            DropQueue.submit(new Runnable() {
+                @Override
+                public void run() {
+                    runDrop(who, location);
+                }
+            }, DropQueue.priorityFor(currentEvent));
+            Profiler.stop("DropRunner.run", time, true);
             return;
+        }
 
+        // For batched events (explosion blocks) the item & creature spawning
+        // can wait for the queue, but the chance roll and override default
+        // still have to be decided now as the event uses them
+        final List<Runnable> spawns = currentEvent.isBatched()
+                ? new ArrayList<Runnable>() : null;
+        if (!performDrop(who, location, spawns)) {
+            Profiler.stop("DropRunner.run", time, false);
+            return;
+        }
+
+        // The replacement block and tool damage have to happen while the
+        // event is running; the rest keeps its usual order in the queue
+        processReplacementBlock();
+        processToolDamage();
+        DropQueue.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (spawns != null)
+                    for (Runnable spawn : spawns)
+                        spawn.run();
+                processActions();
+                processCommands(customDrop.getCommands(), who, customDrop,
+                        currentEvent, amount);
+                processEffects(location);
+                processEventParameter();
+            }
+        }, DropQueue.priorityFor(currentEvent));
+        Profiler.stop("DropRunner.run", time, true);
+    }
+
+    private void runDrop(Player who, Location location) {
+        if (!performDrop(who, location))
+            return;
         processActions();
-        processCommands(customDrop.getCommands(), who, customDrop, currentEvent, amount);
+        processCommands(customDrop.getCommands(), who, customDrop,
+                currentEvent, amount);
         processReplacementBlock();
         processEffects(location);
         processToolDamage();
         processEventParameter();
     }
 
+    /**
+     * @return This runner, marked to go through the DropQueue as the event
+     *         has already finished by the time it runs (ie. the drop has a
+     *         delay).
+     */
+    public DropRunner delayed() {
+        delayed = true;
+        return this;
+    }
+
     /**
      * 
      */
@@ -176,9 +234,8 @@ public class DropRunner implements Runnable {
                 tempReplace = new BlockTarget(toReplace.getLocation()
                         .getBlock());
             }
-            Log.logInfo("Replacing " + toReplace.toString() + " with "
-                    + customDrop.getReplacementBlock().toString(),
-                    Verbosity.HIGHEST);
+            Log.logInfo(Verbosity.HIGHEST, "Replacing {} with {}", toReplace,
+                    customDrop.getReplacementBlock());
             if (tempReplace.getMaterial() == Material.AIR && currentEvent.getRealEvent() instanceof EntityDeathEvent) {
                 if (!(currentEvent.getVictim() instanceof Player))
                     currentEvent.getVictim().remove();
@@ -194,6 +251,17 @@ public class DropRunner implements Runnable {
      * @param location
      */
     public boolean performDrop(Player who, Location location) {
+        return performDrop(who, location, null);
+    }
+
+    /**
+     * @param who
+     * @param location
+     * @param spawns
+     *            if not null, item & creature spawning is added to this list
+     *            to be run later instead of spawning straight away
+     */
+    boolean performDrop(Player who, Location location, List<Runnable> spawns) {
         // Then the actual drop
         // May have unexpected effects when use with delay.
         if (customDrop.getDropped() != null) {
@@ -208,20 +276,24 @@ public class DropRunner implements Runnable {
                         dropNaturally, spreadDrop, customDrop.rng, eventName, currentEvent.getSpawnedReason(), currentEvent.getVictimName()); // TODO:
                                                                                // add
                                                                                // tool
+                flags.deferSpawning(spawns);
                 DropResult dropResult = customDrop.getDropped().drop(location,
                         target, customDrop.getOffset(), amount, flags);
                 droppedQuantity = dropResult.getQuantity();
-                Log.logInfo(
-                        "Override default is: "
-                                + dropResult.getOverrideDefault(), HIGHEST);
+                if (Log.isLogging(HIGHEST))
+                    Log.logInfo(
+                            "Override default is: "
+                                    + dropResult.getOverrideDefault(), HIGHEST);
                 if (dropResult.getOverrideDefault())
                     currentEvent.setOverrideDefault(true);
                 currentEvent.setOverrideDefaultXp(dropResult
                         .getOverrideDefaultXp());
 
-                Log.logInfo("SimpleDrop: dropped "
-                        + customDrop.getDropped().toString() + " x " + amount
-                        + " (dropped: " + droppedQuantity + ")", HIGHEST);
+                if (Log.isLogging(HIGHEST))
+                    Log.logInfo("SimpleDrop: dropped "
+                            + customDrop.getDropped().toString() + " x "
+                            + amount + " (dropped: " + droppedQuantity + ")",
+                            HIGHEST);
                 if (droppedQuantity < 0) { // If the embedded chance roll fails,
                                            // assume default and bail out!
                     Log.logInfo("Drop failed... setting cancelled to false",
@@ -295,8 +367,9 @@ public class DropRunner implements Runnable {
         if (dropResult.getDropped() != null
                 && (currentEvent.getTrigger() == Trigger.FISH_CAUGHT)
                 && who != null) {
-            Log.logInfo("Setting velocity on fished entity...."
-                    + dropResult.getDroppedString(), Verbosity.HIGHEST);
+            if (Log.isLogging(Verbosity.HIGHEST))
+                Log.logInfo("Setting velocity on fished entity...."
+                        + dropResult.getDroppedString(), Verbosity.HIGHEST);
             for (Entity ent : dropResult.getDropped()) {
                 setEntityVectorFromTo(currentEvent.getLocation(),
                         who.getLocation(), ent);
@@ -351,9 +424,9 @@ public class DropRunner implements Runnable {
                     .getShooter();
             // FIXME: why would this (living) ever be null?
             if (living != null)
-                Log.logInfo(
-                        "droprunner.run: projectile agent detected... shooter = "
-                                + living.toString(), HIGHEST);
+                Log.logInfo(HIGHEST,
+                        "droprunner.run: projectile agent detected... shooter = {}",
+                        living);
             if (living instanceof PlayerSubject)
                 who = ((PlayerSubject) living).getPlayer();
         }
@@ -407,9 +480,9 @@ public class DropRunner implements Runnable {
                     if (suppress)
                         outputTo = "console";
 
-                    Log.logInfo("CommandAction: running - '/" + command
-                            + "' as " + runAs + ", output to " + outputTo,
-                            Verbosity.HIGH);
+                    Log.logInfo(Verbosity.HIGH,
+                            "CommandAction: running - '/{}' as {}, output to {}",
+                            command, runAs, outputTo);
                 }
 
                 command = MessageAction.parseVariables(command, drop,
@@ -0,0 +1,163 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Bukkit;
+
+import com.gmail.zariust.common.Verbosity;
+import com.gmail.zariust.otherdrops.Log;
+import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.Profiler;
+
+/**
+ * Runs delayed drops from a single repeating task, rather than a Bukkit task
+ * per drop. Pending drops are kept in a hashed timing wheel: a drop due in n
+ * ticks goes in slot (current + n) % WHEEL_SIZE with n / WHEEL_SIZE full
+ * turns to wait, so scheduling is O(1) and each tick only looks at one slot.
+ *
+ * The task only runs while there are drops pending. Main server thread only.
+ */
+public final class DropScheduler implements Runnable {
+    // a power of two, so the slot can be found with a mask
+    private static final int                 WHEEL_SIZE = 256;
+    private static final int                 MASK       = WHEEL_SIZE - 1;
+
+    private static final DropScheduler       instance   = new DropScheduler();
+    private static final List<List<Pending>> wheel      = new ArrayList<List<Pending>>(
+                                                                WHEEL_SIZE);
+    static {
+        for (int i = 0; i < WHEEL_SIZE; i++)
+            wheel.add(new ArrayList<Pending>());
+    }
+
+    private static int                       cursor;
+    private static int                       pending;
+    private static int                       taskId     = -1;
+
+    private static class Pending {
+        final Runnable task;
+        int            rounds;
+
+        Pending(Runnable task, int rounds) {
+            this.task = task;
+            this.rounds = rounds;
+        }
+    }
+
+    private DropScheduler() {
+    }
+
+    /**
+     * Run a task after the given number of ticks.
+     */
+    public static void schedule(Runnable task, int ticks) {
+        if (ticks < 1)
+            ticks = 1;
+        if (!OtherDrops.plugin.isEnabled()) {
+            // Bukkit won't take tasks from a disabled plugin
+            DropQueue.runTask(task);
+            return;
+        }
+        if (taskId == -1) {
+            taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(
+                    OtherDrops.plugin, instance, 1, 1);
+            if (taskId == -1) {
+                Log.logWarning("DropScheduler: could not start task, delayed drop skipped.",
+                        Verbosity.NORMAL);
+                return;
+            }
+        }
+        // the cursor has already passed the current slot, so a delay of one
+        // tick goes in the next slot
+        int due = ticks - 1;
+        wheel.get((cursor + due) & MASK).add(
+                new Pending(task, due / WHEEL_SIZE));
+        pending++;
+    }
+
+    @Override
+    public void run() {
+        long time = Profiler.start();
+        List<Pending> slot = wheel.get(cursor);
+        cursor = (cursor + 1) & MASK;
+        int ran = 0;
+        if (!slot.isEmpty()) {
+            // keep the entries for later turns, run the rest (note: running
+            // may schedule new drops, but never into this slot)
+            List<Pending> due = new ArrayList<Pending>();
+            int kept = 0;
+            for (Pending entry : slot) {
+                if (entry.rounds == 0) {
+                    due.add(entry);
+                } else {
+                    entry.rounds--;
+                    slot.set(kept++, entry);
+                }
+            }
+            slot.subList(kept, slot.size()).clear();
+            pending -= due.size();
+            for (Pending entry : due)
+                DropQueue.runTask(entry.task);
+            ran = due.size();
+        }
+        Profiler.stop("DropScheduler.run", time, ran > 0);
+        if (pending == 0)
+            stop();
+    }
+
+    /**
+     * Run all pending drops now, without scheduling anything (eg. on shutdown
+     * or reload).
+     */
+    public static void drain() {
+        List<Runnable> tasks = new ArrayList<Runnable>(pending);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            List<Pending> slot = wheel.get((cursor + i) & MASK);
+            for (Pending entry : slot)
+                tasks.add(entry.task);
+        }
+        clear();
+        if (!tasks.isEmpty())
+            Log.logInfo("DropScheduler: running " + tasks.size()
+                    + " pending delayed drop(s).", Verbosity.HIGH);
+        DropQueue.runAll(tasks);
+    }
+
+    /**
+     * Throw away all pending drops.
+     */
+    public static void clear() {
+        for (List<Pending> slot : wheel)
+            slot.clear();
+        pending = 0;
+        stop();
+    }
+
+    public static int size() {
+        return pending;
+    }
+
+    private static void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.event;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+
+/**
+ * A read-only snapshot of which target keys have drops configured for each
+ * trigger. Listeners check this before building an OccurredEvent so that
+ * events nobody has configured a drop for are thrown away straight away.
+ *
+ * Instances never change once built - a reload builds a new one and swaps it
+ * in (see OtherDropsConfig.dropsFilter).
+ */
+public class DropsFilter {
+    private final Map<Trigger, BitSet>      materials;
+    private final Map<Trigger, Set<String>> keys;
+
+    /**
+     * An empty filter, that lets nothing through.
+     */
+    public DropsFilter() {
+        materials = Collections.emptyMap();
+        keys = Collections.emptyMap();
+    }
+
+    DropsFilter(Map<Trigger, ? extends Set<String>> triggerKeys) {
+        materials = new HashMap<Trigger, BitSet>();
+        keys = new HashMap<Trigger, Set<String>>();
+        for (Map.Entry<Trigger, ? extends Set<String>> entry : triggerKeys
+                .entrySet()) {
+            BitSet set = new BitSet(Material.values().length);
+            for (String key : entry.getValue()) {
+                Material mat = Material.getMaterial(key);
+                if (mat != null)
+                    set.set(mat.ordinal());
+            }
+            materials.put(entry.getKey(), set);
+            keys.put(entry.getKey(), new HashSet<String>(entry.getValue()));
+        }
+    }
+
+    /**
+     * @param trigger
+     *            The trigger to check.
+     * @return True if any drop at all is configured for the trigger.
+     */
+    public boolean hasDrops(Trigger trigger) {
+        return trigger != null && keys.containsKey(trigger);
+    }
+
+    /**
+     * @param trigger
+     *            The trigger to check.
+     * @param mat
+     *            The material of the block (or vehicle) being targeted.
+     * @return True if a drop could be configured for the target.
+     */
+    public boolean hasDrops(Trigger trigger, Material mat) {
+        if (trigger == null)
+            return false;
+        BitSet set = materials.get(trigger);
+        if (set == null)
+            return false;
+        if (mat == null)
+            return true; // unknown, let the full check decide
+        return set.get(mat.ordinal());
+    }
+
+    /**
+     * @param trigger
+     *            The trigger to check.
+     * @param entity
+     *            The entity being targeted.
+     * @return True if a drop could be configured for the target.
+     */
+    public boolean hasDrops(Trigger trigger, Entity entity) {
+        if (trigger == null)
+            return false;
+        Set<String> set = keys.get(trigger);
+        if (set == null)
+            return false;
+        // Only living entities have a key that can be worked out cheaply (it
+        // matches CreatureSubject/PlayerSubject.getKey()), anything else has
+        // to go through the full check
+        if (!(entity instanceof LivingEntity))
+            return true;
+        return set.contains(entity.getType().toString());
+    }
+}
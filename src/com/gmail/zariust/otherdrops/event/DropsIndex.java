@@ -0,0 +1,267 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+import com.gmail.zariust.otherdrops.options.Time;
+import com.gmail.zariust.otherdrops.options.Weather;
+import com.gmail.zariust.otherdrops.subject.Agent;
+import com.gmail.zariust.otherdrops.subject.PlayerSubject;
+import com.gmail.zariust.otherdrops.subject.ToolAgent;
+
+/**
+ * A compiled index over a sorted DropsList, used to find the rules that can
+ * possibly match an occurred event without calling CustomDrop.matches() on
+ * every rule.
+ *
+ * Each level of the index (tool material, world, biome, weather, time and
+ * height) holds a bitset of rule positions. A rule's bit is only cleared when
+ * the rule's own check would fail for that value, so the candidates are always
+ * a superset of the rules that match and are returned in list order - the
+ * full match is still run on each candidate.
+ */
+public class DropsIndex {
+    // Heights outside this range are checked directly rather than cached
+    private static final int                MAX_CACHED_HEIGHT = 256;
+
+    private final CustomDrop[]              drops;
+    private final BitSet                    all;
+
+    // Tool level: rules that accept any tool, plus rules that only accept
+    // specific tool materials held by a player
+    private final BitSet                    anyTool;
+    private final Map<Material, BitSet>     byToolMaterial;
+
+    // Lazily populated levels - each value is evaluated once per rule and
+    // then cached for the lifetime of the index
+    private final boolean                   hasWorlds, hasBiomes, hasWeather,
+            hasTimes, hasHeights;
+    private final Map<World, BitSet>        byWorld           = new WeakHashMap<World, BitSet>();
+    private final Map<Biome, BitSet>        byBiome           = new EnumMap<Biome, BitSet>(
+                                                                      Biome.class);
+    private final Map<Weather, BitSet>      byWeather         = new EnumMap<Weather, BitSet>(
+                                                                      Weather.class);
+    private final BitSet[]                  byHeight          = new BitSet[MAX_CACHED_HEIGHT];
+
+    // Time level: the time checks are constant between the configured range
+    // boundaries, so store one bitset per interval
+    private final long[]                    timeBounds;
+    private final BitSet[]                  byTime;
+
+    public DropsIndex(List<CustomDrop> list) {
+        drops = list.toArray(new CustomDrop[list.size()]);
+        all = new BitSet(drops.length);
+        all.set(0, drops.length);
+
+        anyTool = new BitSet(drops.length);
+        byToolMaterial = new EnumMap<Material, BitSet>(Material.class);
+
+        boolean worlds = false, biomes = false, weather = false, heights = false;
+        TreeSet<Long> bounds = new TreeSet<Long>();
+        for (int i = 0; i < drops.length; i++) {
+            CustomDrop drop = drops[i];
+            indexTool(i, drop);
+            worlds |= drop.getWorlds() != null;
+            biomes |= drop.getBiome() != null;
+            weather |= drop.getWeather() != null;
+            heights |= drop.getHeight() != null;
+            if (drop.getTime() != null) {
+                for (Time time : drop.getTime().keySet()) {
+                    if (time == null || time.getMin() == null
+                            || time.getMax() == null)
+                        continue;
+                    bounds.add(time.getMin());
+                    bounds.add(time.getMax() + 1);
+                }
+                // a time map with no usable bounds is still constant, so
+                // make sure there's at least one interval to evaluate
+                bounds.add(0L);
+            }
+        }
+        hasWorlds = worlds;
+        hasBiomes = biomes;
+        hasWeather = weather;
+        hasHeights = heights;
+        hasTimes = !bounds.isEmpty();
+
+        timeBounds = new long[bounds.size()];
+        int n = 0;
+        for (Long bound : bounds)
+            timeBounds[n++] = bound;
+        byTime = new BitSet[timeBounds.length + 1];
+        if (hasTimes) {
+            byTime[0] = compileTime(timeBounds[0] - 1);
+            for (int i = 0; i < timeBounds.length; i++)
+                byTime[i + 1] = compileTime(timeBounds[i]);
+        }
+    }
+
+    private void indexTool(int i, CustomDrop drop) {
+        Map<Agent, Boolean> tools = drop.getTool();
+        if (tools == null) {
+            anyTool.set(i);
+            return;
+        }
+        // Only rules whose positive tools are all material-specific tool
+        // agents can be narrowed down - anything else always goes through
+        List<Material> materials = new ArrayList<Material>();
+        for (Map.Entry<Agent, Boolean> entry : tools.entrySet()) {
+            if (!entry.getValue())
+                continue;
+            if (!(entry.getKey() instanceof ToolAgent)
+                    || ((ToolAgent) entry.getKey()).getMaterial() == null) {
+                anyTool.set(i);
+                return;
+            }
+            materials.add(((ToolAgent) entry.getKey()).getMaterial());
+        }
+        for (Material mat : materials) {
+            BitSet set = byToolMaterial.get(mat);
+            if (set == null) {
+                set = new BitSet(drops.length);
+                byToolMaterial.put(mat, set);
+            }
+            set.set(i);
+        }
+    }
+
+    /**
+     * Gather the rules that can possibly match the given event, in the same
+     * order as the underlying list.
+     *
+     * @param occurence
+     *            The event being processed.
+     * @return A list of candidate rules.
+     */
+    public List<CustomDrop> getCandidates(OccurredEvent occurence) {
+        BitSet result = (BitSet) anyTool.clone();
+        Agent tool = occurence.getTool();
+        if (tool instanceof PlayerSubject) {
+            BitSet toolSet = byToolMaterial.get(((PlayerSubject) tool)
+                    .getMaterial());
+            if (toolSet != null)
+                result.or(toolSet);
+        }
+
+        if (hasWorlds && !result.isEmpty())
+            result.and(forWorld(occurence.getWorld()));
+        if (hasBiomes && !result.isEmpty())
+            result.and(forBiome(occurence.getBiome()));
+        if (hasWeather && !result.isEmpty())
+            result.and(forWeather(occurence.getWeather()));
+        if (hasTimes && !result.isEmpty())
+            result.and(forTime(occurence.getTime()));
+        if (hasHeights && !result.isEmpty())
+            result.and(forHeight(occurence.getHeight()));
+
+        List<CustomDrop> candidates = new ArrayList<CustomDrop>(
+                result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result
+                .nextSetBit(i + 1))
+            candidates.add(drops[i]);
+        return candidates;
+    }
+
+    private BitSet forWorld(World world) {
+        if (world == null)
+            return all;
+        BitSet set = byWorld.get(world);
+        if (set == null) {
+            set = new BitSet(drops.length);
+            for (int i = 0; i < drops.length; i++)
+                if (drops[i].isWorld(world))
+                    set.set(i);
+            byWorld.put(world, set);
+        }
+        return set;
+    }
+
+    private BitSet forBiome(Biome biome) {
+        if (biome == null)
+            return all;
+        BitSet set = byBiome.get(biome);
+        if (set == null) {
+            set = new BitSet(drops.length);
+            for (int i = 0; i < drops.length; i++)
+                if (drops[i].isBiome(biome))
+                    set.set(i);
+            byBiome.put(biome, set);
+        }
+        return set;
+    }
+
+    private BitSet forWeather(Weather sky) {
+        if (sky == null)
+            return all;
+        BitSet set = byWeather.get(sky);
+        if (set == null) {
+            set = new BitSet(drops.length);
+            for (int i = 0; i < drops.length; i++)
+                if (drops[i].isWeather(sky))
+                    set.set(i);
+            byWeather.put(sky, set);
+        }
+        return set;
+    }
+
+    private BitSet compileTime(long time) {
+        BitSet set = new BitSet(drops.length);
+        for (int i = 0; i < drops.length; i++)
+            if (drops[i].isTime(time))
+                set.set(i);
+        return set;
+    }
+
+    private BitSet forTime(long time) {
+        int pos = Arrays.binarySearch(timeBounds, time);
+        // found: the interval starting at that bound; not found: the number of
+        // bounds below the time
+        int interval = pos >= 0 ? pos + 1 : -(pos + 1);
+        return byTime[interval];
+    }
+
+    private BitSet forHeight(int height) {
+        if (height < 0 || height >= MAX_CACHED_HEIGHT)
+            return compileHeight(height);
+        BitSet set = byHeight[height];
+        if (set == null) {
+            set = compileHeight(height);
+            byHeight[height] = set;
+        }
+        return set;
+    }
+
+    private BitSet compileHeight(int height) {
+        BitSet set = new BitSet(drops.length);
+        for (int i = 0; i < drops.length; i++)
+            if (drops[i].isHeight(height))
+                set.set(i);
+        return set;
+    }
+}
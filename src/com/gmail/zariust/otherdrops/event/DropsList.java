@@ -28,8 +28,14 @@ import com.gmail.zariust.otherdrops.data.Data;
 import com.gmail.zariust.otherdrops.options.Flag;
 
 public class DropsList implements Iterable<CustomDrop> {
+    // Lists smaller than this are cheap enough to scan without an index
+    static final int                       MIN_INDEXED_SIZE = 8;
+
     private List<CustomDrop>               list;
-    private Map<String, Map<Data, Double>> keys;
+    // exclusive keys are numbered so that ExclusiveMap can use arrays
+    private Map<String, Integer>           exclusiveSlots;
+    private Map<Data, Double>[]            exclusiveTotals;
+    private DropsIndex                     index;
 
     public DropsList() {
         list = new ArrayList<CustomDrop>();
@@ -54,6 +60,7 @@ public class DropsList implements Iterable<CustomDrop> {
 
     public void add(CustomDrop drop) {
         list.add(drop);
+        index = null; // stale until the next sort()
     }
 
     @Override
@@ -61,12 +68,15 @@ public class DropsList implements Iterable<CustomDrop> {
         return list.listIterator();
     }
 
+    @SuppressWarnings("unchecked")
     public void sort() {
         // If we want to apply other sorting to the drops list, here is the
         // place to do so.
         Collections.sort(list, new UniqueSorter());
+        // Compile the rule index now that the order is final
+        index = list.size() >= MIN_INDEXED_SIZE ? new DropsIndex(list) : null;
         // We also build up the exclusive keys data here
-        keys = new HashMap<String, Map<Data, Double>>();
+        Map<String, Map<Data, Double>> keys = new HashMap<String, Map<Data, Double>>();
         for (CustomDrop event : list) {
             String key = event.getExclusiveKey();
             if (!keys.containsKey(key)) {
@@ -88,14 +98,52 @@ public class DropsList implements Iterable<CustomDrop> {
                     keys.get(key).put(data, 100.0);
             }
         }
+        exclusiveSlots = new HashMap<String, Integer>();
+        exclusiveTotals = new Map[keys.size()];
+        for (Map.Entry<String, Map<Data, Double>> key : keys.entrySet()) {
+            exclusiveTotals[exclusiveSlots.size()] = key.getValue();
+            exclusiveSlots.put(key.getKey(), exclusiveSlots.size());
+        }
+    }
+
+    /**
+     * Get the drops that could match the given event, in list order. Drops
+     * not returned here are guaranteed not to match.
+     * 
+     * @param occurence
+     *            The event being processed.
+     * @return The candidate drops.
+     */
+    public Iterable<CustomDrop> getCandidates(OccurredEvent occurence) {
+        if (index == null)
+            return list;
+        return index.getCandidates(occurence);
     }
 
     public double getExclusiveTotal(String key, Data data) {
-        if (!keys.containsKey(key))
+        return getExclusiveTotal(getExclusiveSlot(key), data);
+    }
+
+    /**
+     * @return The number of the exclusive key in this list (from 0 up to
+     *         getExclusiveCount()), or -1 if no drop in the list has the key.
+     */
+    public int getExclusiveSlot(String key) {
+        Integer slot = exclusiveSlots == null ? null : exclusiveSlots.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    public int getExclusiveCount() {
+        return exclusiveTotals == null ? 0 : exclusiveTotals.length;
+    }
+
+    public double getExclusiveTotal(int slot, Data data) {
+        if (slot < 0)
             return 0;
-        if (!keys.get(key).containsKey(data))
-            return keys.get(key).get(null);
-        return keys.get(key).get(data);
+        Map<Data, Double> totals = exclusiveTotals[slot];
+        if (!totals.containsKey(data))
+            return totals.get(null);
+        return totals.get(data);
     }
 
     public class UniqueSorter implements Comparator<CustomDrop> {
@@ -16,64 +16,313 @@
 
 package com.gmail.zariust.otherdrops.event;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
 
 import com.gmail.zariust.otherdrops.parameters.Trigger;
 import com.gmail.zariust.otherdrops.subject.Target;
 
+/**
+ * All loaded drops, by trigger & target key.
+ *
+ * Drops for a single target are stored under its key. Drops for a group of
+ * targets (eg. ANY_BLOCK or CREATURE_ANY) are stored once per trigger along
+ * with the set of keys they cover, rather than being copied into the list of
+ * every key. The DropsList for a key combines both, in the order the drops
+ * were loaded; the lists are all built (and sorted) by applySorting(), so
+ * that looking them up while handling events doesn't change anything.
+ */
 public class DropsMap {
-    private Map<Trigger, Map<String, DropsList>> blocksHash = new HashMap<Trigger, Map<String, DropsList>>();
+    private static final Map<String, EntityType>           ENTITY_TYPES = new HashMap<String, EntityType>();
+    static {
+        for (EntityType type : EntityType.values())
+            ENTITY_TYPES.put(type.toString(), type);
+    }
+
+    // drops for a single target, in loading order
+    private Map<Trigger, Map<String, List<CustomDrop>>> blocksHash   = new HashMap<Trigger, Map<String, List<CustomDrop>>>();
+    // drops for groups of targets, in loading order
+    private Map<Trigger, List<Wildcard>>                 wildcards    = new HashMap<Trigger, List<Wildcard>>();
+    // the combined, sorted lists - built by applySorting()
+    private Map<Trigger, Map<String, DropsList>>         lists        = new HashMap<Trigger, Map<String, DropsList>>();
+    // loading order of each drop, for combining the two above
+    private Map<CustomDrop, Integer>                     order        = new IdentityHashMap<CustomDrop, Integer>();
+    // every drop, by the file it was loaded from (in loading order)
+    private Map<String, List<CustomDrop>>                sources      = new LinkedHashMap<String, List<CustomDrop>>();
+
+    /**
+     * A drop for a group of targets, and the keys of those targets.
+     */
+    private static class Wildcard {
+        final CustomDrop          drop;
+        final EnumSet<Material>   materials = EnumSet.noneOf(Material.class);
+        final EnumSet<EntityType> creatures = EnumSet.noneOf(EntityType.class);
+        final Set<String>         others    = new HashSet<String>();
+
+        Wildcard(CustomDrop drop, List<Target> targets) {
+            this.drop = drop;
+            for (Target target : targets) {
+                String key = target.getKey();
+                if (key == null)
+                    continue;
+                Material mat = Material.getMaterial(key);
+                EntityType type = mat == null ? ENTITY_TYPES.get(key) : null;
+                if (mat != null)
+                    materials.add(mat);
+                else if (type != null)
+                    creatures.add(type);
+                else
+                    others.add(key);
+            }
+        }
+
+        boolean contains(String key) {
+            Material mat = Material.getMaterial(key);
+            if (mat != null)
+                return materials.contains(mat);
+            EntityType type = ENTITY_TYPES.get(key);
+            if (type != null)
+                return creatures.contains(type);
+            return others.contains(key);
+        }
+
+        void addKeysTo(Set<String> keys) {
+            for (Material mat : materials)
+                keys.add(mat.toString());
+            for (EntityType type : creatures)
+                keys.add(type.toString());
+            keys.addAll(others);
+        }
+    }
 
     public void addDrop(CustomDrop drop) {
-        if (!blocksHash.containsKey(drop.getTrigger()))
-            blocksHash.put(drop.getTrigger(), new HashMap<String, DropsList>());
-        Map<String, DropsList> triggerHash = blocksHash.get(drop.getTrigger());
-        for (Target target : drop.getTarget().canMatch()) {
-            String key = target.getKey();
-            if (key == null)
-                continue; // shouldn't happen though...?
-            if (!triggerHash.containsKey(key))
-                triggerHash.put(key, new DropsList());
-            DropsList drops = triggerHash.get(key);
-            drops.add(drop);
+        addDrop(drop, "");
+    }
+
+    /**
+     * @param source
+     *            The file the drop was loaded from.
+     */
+    public void addDrop(CustomDrop drop, String source) {
+        List<CustomDrop> sourceDrops = sources.get(source);
+        if (sourceDrops == null) {
+            sourceDrops = new ArrayList<CustomDrop>();
+            sources.put(source, sourceDrops);
         }
+        sourceDrops.add(drop);
+        order.put(drop, order.size());
+        lists.remove(drop.getTrigger()); // until applySorting() is called again
+        index(drop);
     }
 
+    private void index(CustomDrop drop) {
+        List<Target> targets = drop.getTarget().canMatch();
+        if (targets.size() != 1) {
+            List<Wildcard> triggerWildcards = wildcards.get(drop.getTrigger());
+            if (triggerWildcards == null) {
+                triggerWildcards = new ArrayList<Wildcard>();
+                wildcards.put(drop.getTrigger(), triggerWildcards);
+            }
+            triggerWildcards.add(new Wildcard(drop, targets));
+            return;
+        }
+        String key = targets.get(0).getKey();
+        if (key == null)
+            return; // shouldn't happen though...?
+        Map<String, List<CustomDrop>> triggerHash = blocksHash.get(drop
+                .getTrigger());
+        if (triggerHash == null) {
+            triggerHash = new HashMap<String, List<CustomDrop>>();
+            blocksHash.put(drop.getTrigger(), triggerHash);
+        }
+        List<CustomDrop> drops = triggerHash.get(key);
+        if (drops == null) {
+            drops = new ArrayList<CustomDrop>(2);
+            triggerHash.put(key, drops);
+        }
+        drops.add(drop);
+    }
+
+    /**
+     * @return The sorted drops for the target, or null if there are none (or
+     *         applySorting() hasn't been called since they were added).
+     */
     public DropsList getList(Trigger trigger, Target target) {
-        if (!blocksHash.containsKey(trigger))
-            return null;
         if (target == null)
             return null;
-        return blocksHash.get(trigger).get(target.getKey());
+        String key = target.getKey();
+        if (key == null)
+            return null;
+        Map<String, DropsList> triggerLists = lists.get(trigger);
+        if (triggerLists == null)
+            return null;
+        return triggerLists.get(key);
+    }
+
+    /**
+     * Build the lists for every key of a trigger. Keys that only have drops
+     * from the same wildcards (eg. most blocks for an ANY_BLOCK drop) share
+     * one list.
+     */
+    private Map<String, DropsList> buildLists(Trigger trigger) {
+        Map<String, List<CustomDrop>> triggerHash = blocksHash.get(trigger);
+        List<Wildcard> triggerWildcards = wildcards.get(trigger);
+        Set<String> keys = new HashSet<String>();
+        if (triggerHash != null)
+            keys.addAll(triggerHash.keySet());
+        if (triggerWildcards != null)
+            for (Wildcard wildcard : triggerWildcards)
+                wildcard.addKeysTo(keys);
+
+        Map<String, DropsList> triggerLists = new HashMap<String, DropsList>();
+        Map<List<Wildcard>, DropsList> shared = new HashMap<List<Wildcard>, DropsList>();
+        for (String key : keys) {
+            List<CustomDrop> single = triggerHash == null ? null
+                    : triggerHash.get(key);
+            List<Wildcard> wild = new ArrayList<Wildcard>();
+            if (triggerWildcards != null)
+                for (Wildcard wildcard : triggerWildcards)
+                    if (wildcard.contains(key))
+                        wild.add(wildcard);
+            DropsList list = single == null ? shared.get(wild) : null;
+            if (list == null) {
+                list = buildList(single, wild);
+                if (single == null)
+                    shared.put(wild, list);
+            }
+            triggerLists.put(key, list);
+        }
+        return triggerLists;
+    }
+
+    /**
+     * Combine the drops for a key with the wildcard drops covering it, in
+     * loading order.
+     */
+    private DropsList buildList(List<CustomDrop> single, List<Wildcard> wild) {
+        DropsList list = new DropsList();
+        int i = 0, j = 0;
+        int singleSize = single == null ? 0 : single.size();
+        while (i < singleSize || j < wild.size()) {
+            if (j == wild.size()
+                    || (i < singleSize && order.get(single.get(i)) < order
+                            .get(wild.get(j).drop)))
+                list.add(single.get(i++));
+            else
+                list.add(wild.get(j++).drop);
+        }
+        list.sort();
+        return list;
+    }
+
+    /**
+     * Build a snapshot of the triggers and target keys that currently have
+     * drops, for the listeners to check before creating an OccurredEvent.
+     * 
+     * @return A new filter; later changes to this map are not reflected in it.
+     */
+    public DropsFilter compileFilter() {
+        Map<Trigger, Set<String>> triggerKeys = new HashMap<Trigger, Set<String>>();
+        for (Map.Entry<Trigger, Map<String, List<CustomDrop>>> entry : blocksHash
+                .entrySet()) {
+            if (!entry.getValue().isEmpty())
+                triggerKeys.put(entry.getKey(), new HashSet<String>(entry
+                        .getValue().keySet()));
+        }
+        for (Map.Entry<Trigger, List<Wildcard>> entry : wildcards.entrySet()) {
+            Set<String> keys = triggerKeys.get(entry.getKey());
+            if (keys == null) {
+                keys = new HashSet<String>();
+                triggerKeys.put(entry.getKey(), keys);
+            }
+            for (Wildcard wildcard : entry.getValue())
+                wildcard.addKeysTo(keys);
+        }
+        return new DropsFilter(triggerKeys);
+    }
+
+    /**
+     * Build a new map with the drops from some source files replaced, eg.
+     * after those files have been edited. The replacement drops take the
+     * place of the first replaced source, so the loading order is kept.
+     * Sorting is not applied.
+     *
+     * @param replaced
+     *            The source files to remove the drops of.
+     * @param loaded
+     *            The replacement drops (by their own sources).
+     * @return The new map - this map is not changed.
+     */
+    public DropsMap replaceSources(Collection<String> replaced, DropsMap loaded) {
+        DropsMap result = new DropsMap();
+        boolean added = false;
+        for (Map.Entry<String, List<CustomDrop>> source : sources.entrySet()) {
+            if (replaced.contains(source.getKey())) {
+                if (!added)
+                    result.addAll(loaded);
+                added = true;
+            } else {
+                for (CustomDrop drop : source.getValue())
+                    result.addDrop(drop, source.getKey());
+            }
+        }
+        if (!added)
+            result.addAll(loaded);
+        return result;
+    }
+
+    private void addAll(DropsMap other) {
+        for (Map.Entry<String, List<CustomDrop>> source : other.sources
+                .entrySet())
+            for (CustomDrop drop : source.getValue())
+                addDrop(drop, source.getKey());
     }
 
     public void clear() {
         blocksHash.clear();
+        wildcards.clear();
+        lists.clear();
+        order.clear();
+        sources.clear();
     }
 
     @Override
     public String toString() {
-        return blocksHash.toString();
+        return sources.toString();
     }
 
     @Override
     public int hashCode() {
-        return blocksHash.hashCode();
+        return sources.hashCode();
     }
 
     @Override
     public boolean equals(Object other) {
         if (!(other instanceof DropsMap))
             return false;
-        return blocksHash.equals(((DropsMap) other).blocksHash);
+        return sources.equals(((DropsMap) other).sources);
     }
 
+    /**
+     * Build (and sort) the list for every key that has drops. Must be called
+     * after adding drops and before the map is used for events.
+     */
     public void applySorting() {
-        for (Trigger trigger : blocksHash.keySet()) {
-            for (DropsList list : blocksHash.get(trigger).values()) {
-                list.sort();
-            }
-        }
+        lists.clear();
+        Set<Trigger> triggers = new HashSet<Trigger>(blocksHash.keySet());
+        triggers.addAll(wildcards.keySet());
+        for (Trigger trigger : triggers)
+            lists.put(trigger, buildLists(trigger));
     }
 }
@@ -16,42 +16,65 @@
 
 package com.gmail.zariust.otherdrops.event;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import com.gmail.zariust.otherdrops.data.Data;
 
+/**
+ * The state of a list's exclusive keys while processing one event: for each
+ * key, a value is drawn (up to the key's total chance) when the first drop
+ * with the key is reached, and drops are excluded until the chances of the
+ * drops seen so far add up to the drawn value.
+ */
 public class ExclusiveMap {
-    private Random            rng;
-    private DropsList         currentList;
-    Map<String, ExclusiveKey> map;
+    private final Random    rng;
+    private final DropsList currentList;
+    // by DropsList.getExclusiveSlot()
+    private final double[]  select, cumul;
+    private final boolean[] drawn;
 
     public ExclusiveMap(DropsList list, AbstractDropEvent parentDrop) {
         currentList = list;
         rng = parentDrop.rng;
-        map = new HashMap<String, ExclusiveKey>();
+        int count = list.getExclusiveCount();
+        select = new double[count];
+        cumul = new double[count];
+        drawn = new boolean[count];
     }
 
-    public class ExclusiveKey {
-        public double select, cumul;
-
-        ExclusiveKey(String key, Data data) {
-            select = rng.nextDouble()
-                    * currentList.getExclusiveTotal(key, data);
-            cumul = 0;
-        }
+    /**
+     * @return The key's slot, or -1 if the key isn't in the list (drops with
+     *         such keys are never excluded).
+     */
+    public int getSlot(String exclusiveKey) {
+        return currentList.getExclusiveSlot(exclusiveKey);
     }
 
-    public void put(String exclusiveKey, Data data) {
-        map.put(exclusiveKey, new ExclusiveKey(exclusiveKey, data));
+    public boolean isDrawn(int slot) {
+        return drawn[slot];
     }
 
-    public boolean contains(String exclusiveKey) {
-        return map.containsKey(exclusiveKey);
+    /**
+     * Draw the value for a key.
+     * 
+     * @param data
+     *            The data of the target, as the key's total chance can depend
+     *            on it.
+     */
+    public void draw(int slot, Data data) {
+        select[slot] = rng.nextDouble()
+                * currentList.getExclusiveTotal(slot, data);
+        cumul[slot] = 0;
+        drawn[slot] = true;
     }
 
-    public ExclusiveKey get(String exclusiveKey) {
-        return map.get(exclusiveKey);
+    /**
+     * Add a drop's chance to its key (which must have been drawn).
+     * 
+     * @return False if the drop is excluded.
+     */
+    public boolean add(int slot, double chance) {
+        cumul[slot] += chance;
+        return select[slot] <= cumul[slot];
     }
 }
@@ -19,6 +19,7 @@ package com.gmail.zariust.otherdrops.event;
 import static com.gmail.zariust.common.Verbosity.HIGHEST;
 
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -71,8 +72,10 @@ import org.bukkit.inventory.ItemStack;
 import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.Dependencies;
 import com.gmail.zariust.otherdrops.Log;
+import com.gmail.zariust.otherdrops.RegionIndex;
 import com.gmail.zariust.otherdrops.options.ConfigOnly;
 import com.gmail.zariust.otherdrops.options.Weather;
+import com.gmail.zariust.otherdrops.parameters.Condition;
 import com.gmail.zariust.otherdrops.parameters.Trigger;
 import com.gmail.zariust.otherdrops.subject.Agent;
 import com.gmail.zariust.otherdrops.subject.BlockTarget;
@@ -83,11 +86,14 @@ import com.gmail.zariust.otherdrops.subject.PlayerSubject;
 import com.gmail.zariust.otherdrops.subject.ProjectileAgent;
 import com.gmail.zariust.otherdrops.subject.Target;
 import com.gmail.zariust.otherdrops.subject.VehicleTarget;
-import com.sk89q.worldedit.Vector;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 
 /**
  * An actual drop that has occurred and may match one of the configured drops.
+ * 
+ * Only the raw Bukkit handles are captured on construction; the face, regions,
+ * light level, biome, weather, time, height and attack range are worked out the
+ * first time they are asked for and then remembered, so events that match no
+ * configured drops stay cheap.
  */
 public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     private Agent       tool;
@@ -101,6 +107,16 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     private double      attackRange;
     private int         lightLevel;
     private Location    location;
+    // Raw handles for the lazily computed values above
+    private Block       lightBlock;             // probe neighbours if opaque
+    private Player      faceViewer;             // ray cast to find the face
+    private Entity      rangeEntity;
+    private Agent       rangeAgent;
+    private boolean     hasWeatherTimeHeight;
+    private boolean     biomeKnown, weatherKnown, timeKnown, heightKnown,
+            faceKnown, lightKnown, rangeKnown;
+    private boolean     inMobArena, mobArenaKnown;
+    private Map<Condition, Boolean> conditionResults;
     private Cancellable event;
     private Event       realEvent;
     private boolean     denied;
@@ -110,25 +126,17 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     private BlockTarget replaceBlockWith;
     private boolean     overrideEquipment;
     private String spawnedReason;
+    private DropBatch   batch;
 
     // Constructors
     public OccurredEvent(BlockBreakEvent evt) {
         super(new BlockTarget(evt.getBlock()), Trigger.BREAK);
         event = evt;
-        Block block = evt.getBlock();
-        List<Block> blocks = evt.getPlayer().getLastTwoTargetBlocks(null, 10);
-        if (blocks.size() > 1) {
-            face = blocks.get(1).getFace(blocks.get(0));
-        }
-        setLocationWorldBiomeLight(block);
-        setWeatherTimeHeight(location);
+        faceViewer = evt.getPlayer();
+        setLocationWorld(evt.getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        attackRange = measureRange(
-                location,
-                evt.getPlayer().getLocation(),
-                "Block '" + block.getType().toString() + "' broken by '"
-                        + tool.toString() + "'");
-        setRegions();
+        rangeEntity = evt.getPlayer();
     }
 
     public OccurredEvent(final EntityDeathEvent evt) {
@@ -151,8 +159,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             }
         };
         Entity e = evt.getEntity();
-        setLocationWorldBiomeLight(e);
-        setWeatherTimeHeight(location);
+        setLocationWorld(e);
+        setWeatherTimeHeight();
         setTool(evt.getEntity().getLastDamageCause());
         if (tool == null) {
             Log.logWarning(
@@ -162,36 +170,30 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
                     Verbosity.NORMAL);
             return;
         }
-        attackRange = measureRange(location, tool.getLocation(),
-                "Entity '" + e.toString() + "' killed by '" + tool.toString()
-                        + "'");
-        setRegions();
+        rangeAgent = tool;
     }
 
     public OccurredEvent(EntityDamageEvent evt) {
         super(getEntityTarget(evt.getEntity()), Trigger.HIT);
         event = evt;
         Entity e = evt.getEntity();
-        setLocationWorldBiomeLight(e);
-        setWeatherTimeHeight(location);
+        setLocationWorld(e);
+        setWeatherTimeHeight();
         if (evt instanceof EntityDamageByEntityEvent) {
             EntityDamageByEntityEvent evt2 = (EntityDamageByEntityEvent) evt;
             setTool(evt2.getDamager());
             if (tool != null)
-                attackRange = measureRange(location, evt2.getDamager()
-                        .getLocation(), "Entity '" + e.toString()
-                        + "' damaged by '" + tool.toString() + "'");
+                rangeEntity = evt2.getDamager();
         } else
             setTool(evt.getCause());
-        setRegions();
     }
 
     public OccurredEvent(EntityDamageEvent evt, String string) {
         super(getEntityTarget(evt.getEntity()), Trigger.HIT);
         event = evt;
         Entity e = evt.getEntity();
-        setLocationWorldBiomeLight(e);
-        setWeatherTimeHeight(location);
+        setLocationWorld(e);
+        setWeatherTimeHeight();
         if (evt instanceof EntityDamageByEntityEvent) {
             EntityDamageByEntityEvent evt2 = (EntityDamageByEntityEvent) evt;
             setTool(evt2.getDamager());
@@ -206,29 +208,24 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
                             Verbosity.HIGH);
                 }
             } else {
-                Log.logInfo("Damager: " + evt2.getDamager().toString(),
-                        Verbosity.HIGH);
-                attackRange = measureRange(location, evt2.getDamager()
-                        .getLocation(), "Entity '" + e.toString()
-                        + "' damaged by '" + tool.toString() + "'");
+                Log.logInfo(Verbosity.HIGH, "Damager: {}", evt2.getDamager());
+                rangeEntity = evt2.getDamager();
             }
         } else
             setTool(evt.getCause());
-        setRegions();
     }
 
     public OccurredEvent(PaintingBreakEvent evt) {
         super(new VehicleTarget(evt.getPainting()), Trigger.BREAK);
         event = evt;
         Painting canvas = evt.getPainting();
-        setLocationWorldBiomeLight(canvas);
-        setWeatherTimeHeight(location);
+        setLocationWorld(canvas);
+        setWeatherTimeHeight();
         if (evt instanceof PaintingBreakByEntityEvent) {
             PaintingBreakByEntityEvent evt2 = (PaintingBreakByEntityEvent) evt;
             Entity remover = evt2.getRemover();
             setTool(remover);
-            attackRange = measureRange(location, remover.getLocation(),
-                    "Painting broken by '" + tool.toString() + "'");
+            rangeEntity = remover;
         } else {
             switch (evt.getCause()) {
             case ENTITY:
@@ -248,37 +245,29 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
                 break;
             }
         }
-        setRegions();
     }
 
     public OccurredEvent(LeavesDecayEvent evt) {
         super(new BlockTarget(evt.getBlock()), Trigger.LEAF_DECAY);
         event = evt;
-        setLocationWorldBiomeLight(evt.getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getBlock());
+        setWeatherTimeHeight();
         tool = null;
-        setRegions();
     }
 
     public OccurredEvent(VehicleDestroyEvent evt) {
         super(new VehicleTarget(evt.getVehicle()), Trigger.BREAK);
         event = evt;
-        setLocationWorldBiomeLight(evt.getVehicle());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getVehicle());
+        setWeatherTimeHeight();
         setTool(evt.getAttacker()); // Note: getAttacker is NULL for
                                     // environmental attack/break
         // environmental attacks (eg. burning) do not have a location, so range
-        // is not valid.
+        // is not valid (and is left at zero).
         if (evt.getAttacker() instanceof Player) {
-            attackRange = measureRange(location, evt.getAttacker()
-                    .getLocation(), "Vehicle '"
-                    + evt.getVehicle().getType().toString()
-                    + "' destroyed by '" + tool.toString() + "'");
-        } else {
-            attackRange = 0;
+            rangeEntity = evt.getAttacker();
         }
 
-        setRegions();
     }
 
     public OccurredEvent(final PlayerInteractEvent evt, Block block) {
@@ -307,35 +296,29 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
         };
 
         realEvent = evt;
-        setLocationWorldBiomeLight(block);
+        setLocationWorld(block);
         face = evt.getBlockFace();
-        setWeatherTimeHeight(location);
-        attackRange = measureRange(location, evt.getPlayer().getLocation(),
-                "Player '" + evt.getPlayer().getName() + "' interacted with "
-                        + block.toString());
+        faceKnown = true;
+        setWeatherTimeHeight();
+        rangeEntity = evt.getPlayer();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     public OccurredEvent(PlayerInteractEntityEvent evt) {
         super(getEntityTarget(evt.getRightClicked()), Trigger.RIGHT_CLICK);
         event = evt;
-        setLocationWorldBiomeLight(evt.getRightClicked());
-        setWeatherTimeHeight(location);
-        attackRange = measureRange(location, evt.getPlayer().getLocation(),
-                "Player '" + evt.getPlayer().getName() + "' interacted with "
-                        + evt.getRightClicked().toString());
+        setLocationWorld(evt.getRightClicked());
+        setWeatherTimeHeight();
+        rangeEntity = evt.getPlayer();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     public OccurredEvent(BlockFromToEvent evt) {
         super(new BlockTarget(evt.getToBlock()), Trigger.BREAK);
         event = evt;
-        setLocationWorldBiomeLight(evt.getToBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getToBlock());
+        setWeatherTimeHeight();
         tool = new EnvironmentAgent(DamageCause.CUSTOM);
-        setRegions();
     }
 
     public OccurredEvent(ProjectileHitEvent evt, Block hitBlock) {
@@ -353,19 +336,41 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
                 // no need to do anything - not cancellable
             }
         };
-        setLocationWorldBiomeLight(hitBlock);
-        setWeatherTimeHeight(location);
+        setLocationWorld(hitBlock);
+        setWeatherTimeHeight();
         tool = new ProjectileAgent(evt.getEntity());
-        setRegions();
     }
 
     public OccurredEvent(EntityExplodeEvent evt, Block block) {
+        this(evt, block, null);
+    }
+
+    /**
+     * @param batch
+     *            Context shared with the other blocks in the explosion (see
+     *            DropBatch), or null.
+     */
+    public OccurredEvent(EntityExplodeEvent evt, Block block, DropBatch batch) {
         super(new BlockTarget(block), Trigger.BREAK);
         event = evt;
-        setLocationWorldBiomeLight(block);
-        setWeatherTimeHeight(location);
-        tool = new ExplosionAgent(evt.getEntity());
-        setRegions();
+        this.batch = batch;
+        if (batch == null) {
+            setLocationWorld(block);
+            setWeatherTimeHeight();
+            tool = new ExplosionAgent(evt.getEntity());
+            return;
+        }
+        // only the location & height are per block, the rest is the same for
+        // the whole explosion
+        location = block.getLocation();
+        lightBlock = block;
+        world = batch.getWorld();
+        tool = batch.getTool();
+        weather = batch.getWeather();
+        time = batch.getTime();
+        height = block.getY();
+        hasWeatherTimeHeight = true;
+        weatherKnown = timeKnown = heightKnown = true;
     }
 
     // Generic constructors
@@ -386,10 +391,9 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             throws DropCreateException {
         super(new BlockTarget(block), trigger);
         event = null;
-        setLocationWorldBiomeLight(block);
-        setWeatherTimeHeight(location);
+        setLocationWorld(block);
+        setWeatherTimeHeight();
         setTool(agent);
-        setRegions();
     }
 
     /**
@@ -406,10 +410,9 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     public OccurredEvent(Block block, Trigger trigger, Entity agent) {
         super(new BlockTarget(block), trigger);
         event = null;
-        setLocationWorldBiomeLight(block);
-        setWeatherTimeHeight(location);
+        setLocationWorld(block);
+        setWeatherTimeHeight();
         setTool(agent);
-        setRegions();
     }
 
     /**
@@ -469,9 +472,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             throws DropCreateException {
         super(getEntityTarget(entity), action);
         event = null;
-        setLocationWorldBiomeLight(entity);
+        setLocationWorld(entity);
         setTool(agent);
-        setRegions();
     }
 
     /**
@@ -487,9 +489,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     public OccurredEvent(Entity entity, Trigger action, Entity agent) {
         super(getEntityTarget(entity), action);
         event = null;
-        setLocationWorldBiomeLight(entity);
+        setLocationWorld(entity);
         setTool(agent);
-        setRegions();
     }
 
     /**
@@ -549,9 +550,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             throws DropCreateException {
         super(targ, action, true);
         event = null;
-        setLocationWorldBiomeLight(targ);
+        setLocationWorld(targ);
         setTool(agent);
-        setRegions();
     }
 
     /**
@@ -570,9 +570,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             throws DropCreateException {
         super(targ, action, true);
         event = null;
-        setLocationWorldBiomeLight(targ);
+        setLocationWorld(targ);
         setTool(agent);
-        setRegions();
     }
 
     /**
@@ -620,10 +619,9 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     public OccurredEvent(PlayerFishEvent evt) {
         super(new PlayerSubject(evt.getPlayer()), Trigger.FISH_CAUGHT);
         event = evt;
-        setLocationWorldBiomeLight(evt.getCaught().getLocation().getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getCaught().getLocation().getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     // Yes, this needs to be a separate constructor as the "super" has to be on
@@ -631,10 +629,9 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     public OccurredEvent(PlayerFishEvent evt, String string) {
         super(new PlayerSubject(evt.getPlayer()), Trigger.FISH_FAILED);
         event = evt;
-        setLocationWorldBiomeLight(evt.getPlayer().getLocation().getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getPlayer().getLocation().getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     public OccurredEvent(CreatureSpawnEvent evt) {
@@ -642,9 +639,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
         event = evt;
         setSpawnedReason(evt.getSpawnReason().toString());
         Entity e = evt.getEntity();
-        setLocationWorldBiomeLight(e);
-        setWeatherTimeHeight(location);
-        setRegions();
+        setLocationWorld(e);
+        setWeatherTimeHeight();
     }
 
     public OccurredEvent(BlockRedstoneEvent evt, Block block) {
@@ -671,9 +667,8 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
                 this.cancelled = cancel;
             }
         };
-        setLocationWorldBiomeLight(block);
-        setWeatherTimeHeight(location);
-        setRegions();
+        setLocationWorld(block);
+        setWeatherTimeHeight();
     }
 
     public OccurredEvent(BlockRedstoneEvent evt, Block block, String string) {
@@ -700,10 +695,9 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             }
         };
 
-        setLocationWorldBiomeLight(evt.getPlayer().getLocation().getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getPlayer().getLocation().getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        setRegions();
 
     }
 
@@ -726,125 +720,111 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
             }
         };
 
-        setLocationWorldBiomeLight(evt.getPlayer().getLocation().getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getPlayer().getLocation().getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     public OccurredEvent(PlayerItemConsumeEvent evt) {
         super(new PlayerSubject(evt.getPlayer()), Trigger.CONSUME_ITEM);
         event = evt;
-        setLocationWorldBiomeLight(evt.getPlayer().getLocation().getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getPlayer().getLocation().getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     public OccurredEvent(PlayerMoveEvent evt, Block standingOn) {
 //        super(new PlayerSubject(evt.getPlayer()), Trigger.PLAYER_MOVE);
         super(new BlockTarget(standingOn), Trigger.PLAYER_MOVE);
         event = evt;
-        setLocationWorldBiomeLight(evt.getPlayer().getLocation().getBlock());
-        setWeatherTimeHeight(location);
+        setLocationWorld(evt.getPlayer().getLocation().getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        setRegions();
     }
 
     public OccurredEvent(EntityExplodeEvent evt, Entity entity) {
         super(getEntityTarget(evt.getEntity()), Trigger.BREAK);
         event = evt;
         Entity e = evt.getEntity();
-        setLocationWorldBiomeLight(e);
-        setWeatherTimeHeight(location);
+        setLocationWorld(e);
+        setWeatherTimeHeight();
         tool = new ExplosionAgent(evt.getEntity());
-        setRegions();
     }
 
 
     public OccurredEvent(BlockGrowEvent evt) {
         super(new BlockTarget(evt.getNewState().getType(), evt.getBlock().getLocation(), evt.getNewState().getRawData()), Trigger.BLOCK_GROW);
         event = evt;
-        setLocationWorldBiomeLight(evt.getBlock());
-        setWeatherTimeHeight(location);
-        setRegions();
+        setLocationWorld(evt.getBlock());
+        setWeatherTimeHeight();
     }
 
     public OccurredEvent(BlockPlaceEvent evt) {
         super(new BlockTarget(evt.getBlock()), Trigger.BLOCK_PLACE);
         event = evt;
-        Block block = evt.getBlock();
-        List<Block> blocks = evt.getPlayer().getLastTwoTargetBlocks(null, 10);
-        if (blocks.size() > 1) {
-            face = blocks.get(1).getFace(blocks.get(0));
-        }
-        setLocationWorldBiomeLight(block);
-        setWeatherTimeHeight(location);
+        faceViewer = evt.getPlayer();
+        setLocationWorld(evt.getBlock());
+        setWeatherTimeHeight();
         setTool(evt.getPlayer());
-        attackRange = measureRange(
-                location,
-                evt.getPlayer().getLocation(),
-                "Block '" + block.getType().toString() + "' placed by '"
-                        + tool.toString() + "'");
-        setRegions();
+        rangeEntity = evt.getPlayer();
     }
 
     // Constructor helpers
-    private void setWeatherTimeHeight(Location loc) {
-        World world = loc.getWorld();
-        Biome biome = loc.getBlock().getBiome();
-        weather = Weather.match(biome, world.hasStorm(), world.isThundering());
-        time = world.getTime();
-        height = loc.getBlockY();
+    private void setWeatherTimeHeight() {
+        // the actual values are only worked out when first asked for
+        hasWeatherTimeHeight = true;
     }
 
-    private void setLocationWorldBiomeLight(Block block) {
+    private void setLocationWorld(Block block) {
         location = block.getLocation();
         world = block.getWorld();
-        biome = block.getBiome();
-        if (block.getType().isTransparent()) {
-            lightLevel = block.getLightLevel();
-        } else { // look for an air block around
-            byte maxLight = 0;
-            for (BlockFace face : BlockFace.values()) {
-                if (block.getRelative(face).getType().isTransparent()) {
-                    byte currentLevel = block.getRelative(face).getLightLevel();
-                    if (currentLevel > maxLight)
-                        maxLight = currentLevel;
-                }
-            }
-            lightLevel = maxLight;
-        }
+        lightBlock = block;
     }
 
-    private void setLocationWorldBiomeLight(Entity e) {
+    private void setLocationWorld(Entity e) {
         location = e.getLocation();
         world = e.getWorld();
-        biome = world.getBiome(location.getBlockX(), location.getBlockZ());
-        lightLevel = world.getBlockAt(location).getLightLevel();
     }
 
-    private void setLocationWorldBiomeLight(Target targ) {
+    private void setLocationWorld(Target targ) {
         location = targ.getLocation();
         world = location.getWorld();
-        biome = world.getBiome(location.getBlockX(), location.getBlockZ());
-        lightLevel = world.getBlockAt(location).getLightLevel();
     }
 
-    private void setRegions() {
-        regions = new HashSet<String>();
-        if (!Dependencies.hasWorldGuard())
-            return;
-        Map<String, ProtectedRegion> regionMap = Dependencies.getWorldGuard()
-                .getGlobalRegionManager().get(world).getRegions();
-        Vector vec = new Vector(location.getX(), location.getY(),
-                location.getZ());
-        for (String region : regionMap.keySet()) {
-            if (regionMap.get(region).contains(vec))
-                regions.add(region.toLowerCase()); // note: region needs to be
-                                                   // lowercase for case
-                                                   // insensitive matches
+    // Lazy value helpers
+    private int measureLight() {
+        if (lightBlock == null)
+            return world.getBlockAt(location).getLightLevel();
+        if (lightBlock.getType().isTransparent())
+            return lightBlock.getLightLevel();
+        // look for an air block around
+        byte maxLight = 0;
+        for (BlockFace face : BlockFace.values()) {
+            Block relative = lightBlock.getRelative(face);
+            if (relative.getType().isTransparent()) {
+                byte currentLevel = relative.getLightLevel();
+                if (currentLevel > maxLight)
+                    maxLight = currentLevel;
+            }
         }
+        return maxLight;
+    }
+
+    private BlockFace measureFace() {
+        if (faceViewer == null)
+            return null;
+        List<Block> blocks = faceViewer.getLastTwoTargetBlocks(null, 10);
+        if (blocks.size() > 1)
+            return blocks.get(1).getFace(blocks.get(0));
+        return null;
+    }
+
+    private Set<String> findRegions() {
+        RegionIndex index = RegionIndex.get(world);
+        if (index == null)
+            return new HashSet<String>();
+        // note: region names are lowercase for case insensitive matches
+        return index.getRegionNames(location);
     }
 
     private void setTool(DamageCause cause) {
@@ -893,10 +873,12 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
                 // The only other one I can think of is lightning, which would
                 // be covered by the non-entity code
                 // But just in case, log it.
-                Log.logInfo("A "
-                        + lastDamage.getEntity().getClass().getSimpleName()
-                        + " was damaged by a "
-                        + e.getDamager().getClass().getSimpleName(), HIGHEST);
+                if (Log.isLogging(HIGHEST))
+                    Log.logInfo("A "
+                            + lastDamage.getEntity().getClass().getSimpleName()
+                            + " was damaged by a "
+                            + e.getDamager().getClass().getSimpleName(),
+                            HIGHEST);
             }
         }
         // Damager was not a person - check damage types
@@ -958,6 +940,16 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
     }
 
     public void setLocation(Location newLocation) {
+        // the lazy values belong to the original location, so pin them down
+        // before it moves
+        if (location != null && location != newLocation) {
+            getRegions();
+            getWeather();
+            getTime();
+            getHeight();
+            getAttackRange();
+            getLightLevel();
+        }
         location = newLocation;
     }
 
@@ -973,13 +965,42 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      *         event.
      */
     public Set<String> getRegions() {
+        if (regions == null)
+            regions = findRegions();
         return regions;
     }
 
+    /**
+     * @return The remembered result of the drop's tool & world checks, if
+     *         this event is part of a batch and the drop has been checked
+     *         already.
+     */
+    Boolean getSharedMatch(CustomDrop drop) {
+        return batch == null ? null : batch.getSharedMatch(drop);
+    }
+
+    void setSharedMatch(CustomDrop drop, boolean matched) {
+        if (batch != null)
+            batch.setSharedMatch(drop, matched);
+    }
+
+    /**
+     * @return True if this event is one of a batch (eg. a block in an
+     *         explosion).
+     */
+    boolean isBatched() {
+        return batch != null;
+    }
+
     /**
      * @return The weather conditions at the time of the event.
      */
     public Weather getWeather() {
+        if (!weatherKnown && hasWeatherTimeHeight) {
+            weather = Weather.match(getBiome(), world.hasStorm(),
+                    world.isThundering());
+            weatherKnown = true;
+        }
         return weather;
     }
 
@@ -987,6 +1008,10 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      * @return The block face that was hit, if applicable, or null otherwise.
      */
     public BlockFace getFace() {
+        if (!faceKnown) {
+            face = measureFace();
+            faceKnown = true;
+        }
         return face;
     }
 
@@ -994,6 +1019,10 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      * @return The biome in which the event occurred.
      */
     public Biome getBiome() {
+        if (!biomeKnown) {
+            biome = world.getBiome(location.getBlockX(), location.getBlockZ());
+            biomeKnown = true;
+        }
         return biome;
     }
 
@@ -1001,6 +1030,10 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      * @return The (in-game) time of day at which the event occurred.
      */
     public long getTime() {
+        if (!timeKnown && hasWeatherTimeHeight) {
+            time = world.getTime();
+            timeKnown = true;
+        }
         return time;
     }
 
@@ -1008,6 +1041,10 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      * @return The height above bedrock at which the event occurred.
      */
     public int getHeight() {
+        if (!heightKnown && hasWeatherTimeHeight) {
+            height = location.getBlockY();
+            heightKnown = true;
+        }
         return height;
     }
 
@@ -1016,6 +1053,16 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      *         event.
      */
     public double getAttackRange() {
+        if (!rangeKnown) {
+            Location from = null;
+            if (rangeEntity != null)
+                from = rangeEntity.getLocation();
+            else if (rangeAgent != null)
+                from = rangeAgent.getLocation();
+            if (from != null)
+                attackRange = measureRange(location, from, getLogMessage());
+            rangeKnown = true;
+        }
         return attackRange;
     }
 
@@ -1023,9 +1070,44 @@ public class OccurredEvent extends AbstractDropEvent implements Cancellable {
      * @return The light level at the location of the event when it occurred.
      */
     public int getLightLevel() {
+        if (!lightKnown) {
+            lightLevel = measureLight();
+            lightKnown = true;
+        }
         return lightLevel;
     }
 
+    /**
+     * @return True if the event occurred in a running MobArena arena (always
+     *         false if MobArena isn't loaded).
+     */
+    public boolean isInMobArena() {
+        if (!mobArenaKnown) {
+            inMobArena = Dependencies.hasMobArena()
+                    && Dependencies.getMobArenaHandler().inRunningRegion(
+                            location);
+            mobArenaKnown = true;
+        }
+        return inMobArena;
+    }
+
+    /**
+     * Check a condition against this event, reusing the earlier result for
+     * shared conditions (see Condition.getSharedKey()).
+     */
+    boolean checkCondition(Condition condition, CustomDrop drop) {
+        if (!condition.isShared())
+            return condition.check(drop, this);
+        if (conditionResults == null)
+            conditionResults = new IdentityHashMap<Condition, Boolean>();
+        Boolean result = conditionResults.get(condition);
+        if (result == null) {
+            result = condition.check(drop, this);
+            conditionResults.put(condition, result);
+        }
+        return result;
+    }
+
     // Matching!
     @Override
     public boolean matches(AbstractDropEvent other) {
@@ -21,9 +21,12 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockGrowEvent;
 
+import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
 
 public class OdBlockGrowListener implements Listener {
     private final OtherDrops parent;
@@ -34,7 +37,11 @@ public class OdBlockGrowListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBlockGrow(BlockGrowEvent event) {
-        Log.dMsg("BLOCKGROW: "+event.getBlock().toString()+ " state: "+event.getNewState().getType().toString());
+        if (!OtherDropsConfig.dropsFilter.hasDrops(Trigger.BLOCK_GROW, event
+                .getNewState().getType()))
+            return;
+        if (Log.isLogging(Verbosity.HIGHEST))
+            Log.dMsg("BLOCKGROW: "+event.getBlock().toString()+ " state: "+event.getNewState().getType().toString());
         OccurredEvent drop = new OccurredEvent(event);
         parent.sectionManager.performDrop(drop);
     }
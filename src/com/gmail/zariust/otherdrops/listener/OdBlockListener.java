@@ -19,7 +19,6 @@ package com.gmail.zariust.otherdrops.listener;
 import static com.gmail.zariust.common.Verbosity.HIGHEST;
 
 import org.bukkit.GameMode;
-import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -33,11 +32,10 @@ import com.gmail.zariust.otherdrops.Dependencies;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
+import com.gmail.zariust.otherdrops.RegionIndex;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
-import com.sk89q.worldedit.Vector;
 import com.sk89q.worldguard.protection.ApplicableRegionSet;
 import com.sk89q.worldguard.protection.flags.DefaultFlag;
-import com.sk89q.worldguard.protection.managers.RegionManager;
 
 public class OdBlockListener implements Listener {
     private final OtherDrops parent;
@@ -47,17 +45,13 @@ public class OdBlockListener implements Listener {
     }
 
     public Boolean checkWorldguardLeafDecayPermission(Block block) {
-        if (Dependencies.hasWorldGuard()) {
-            // WORLDGUARD: check to see if leaf decay is allowed...
-            // Need to convert the block (it's location) to a WorldGuard Vector
-            Location loc = block.getLocation();
-            Vector pt = new Vector(loc.getX(), loc.getY(), loc.getZ());
-
-            // Get the region manager for this world
-            RegionManager regionManager = Dependencies.getWorldGuard()
-                    .getGlobalRegionManager().get(block.getWorld());
+        // WORLDGUARD: check to see if leaf decay is allowed...
+        // Get the region index for this world (null if no WorldGuard)
+        RegionIndex index = RegionIndex.get(block.getWorld());
+        if (index != null) {
             // Get the "set" for this location
-            ApplicableRegionSet set = regionManager.getApplicableRegions(pt);
+            ApplicableRegionSet set = index.getApplicableRegions(block
+                    .getLocation());
             // If leaf decay is not allowed, just exit this function
             if (!set.allows(DefaultFlag.LEAF_DECAY)) {
                 Log.logInfo("Leaf decay denied - worldguard protected region.",
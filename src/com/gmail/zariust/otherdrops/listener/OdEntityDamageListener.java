@@ -0,0 +1,65 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.listener;
+
+import static com.gmail.zariust.common.Verbosity.EXTREME;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+
+import com.gmail.zariust.otherdrops.Log;
+import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
+import com.gmail.zariust.otherdrops.event.OccurredEvent;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+
+/**
+ * Entity damage fires very often, so it has its own listener that is only
+ * registered when there are HIT drops configured.
+ */
+public class OdEntityDamageListener implements Listener {
+    private final OtherDrops parent;
+
+    public OdEntityDamageListener(OtherDrops instance) {
+        parent = instance;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityDamage(EntityDamageEvent event) {
+        if (event.isCancelled())
+            return;
+        if (!OtherDropsConfig.dropsFilter.hasDrops(Trigger.HIT,
+                event.getEntity()))
+            return;
+        Log.logInfo(EXTREME, "OnEntityDamage (victim: {})", event.getEntity());
+
+        // Check if the damager is a player - if so, weapon is the held tool
+        if (event instanceof EntityDamageByEntityEvent) {
+            EntityDamageByEntityEvent e = (EntityDamageByEntityEvent) event;
+            if (e.getEntity() == null) {
+                Log.logInfo("EntityDamageByEntity but .getEntity() is null?");
+                return;
+            }
+        }
+        OccurredEvent drop = new OccurredEvent(event, "hit");
+        parent.sectionManager.performDrop(drop);
+
+    }
+}
@@ -16,12 +16,11 @@
 
 package com.gmail.zariust.otherdrops.listener;
 
-import static com.gmail.zariust.common.Verbosity.EXTREME;
 import static com.gmail.zariust.common.Verbosity.HIGH;
 import static com.gmail.zariust.common.Verbosity.HIGHEST;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.bukkit.block.Block;
 import org.bukkit.entity.EnderDragon;
@@ -29,15 +28,18 @@ import org.bukkit.entity.Entity;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.painting.PaintingBreakEvent;
 
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
+import com.gmail.zariust.otherdrops.event.DropBatch;
+import com.gmail.zariust.otherdrops.event.DropsFilter;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+import com.gmail.zariust.otherdrops.subject.ExplosionAgent;
 
 public class OdEntityListener implements Listener {
     private final OtherDrops parent;
@@ -46,32 +48,12 @@ public class OdEntityListener implements Listener {
         parent = instance;
     }
 
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onEntityDamage(EntityDamageEvent event) {
-        if (event.isCancelled())
-            return;
-        Log.logInfo("OnEntityDamage (victim: " + event.getEntity().toString()
-                + ")", EXTREME);
-
-        // Check if the damager is a player - if so, weapon is the held tool
-        if (event instanceof EntityDamageByEntityEvent) {
-            EntityDamageByEntityEvent e = (EntityDamageByEntityEvent) event;
-            if (e.getEntity() == null) {
-                Log.logInfo("EntityDamageByEntity but .getEntity() is null?");
-                return;
-            }
-        }
-        OccurredEvent drop = new OccurredEvent(event, "hit");
-        parent.sectionManager.performDrop(drop);
-
-    }
-
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onEntityDeath(EntityDeathEvent event) {
         // TODO: use get getLastDamageCause rather than checking on each
         // getdamage?
-        Log.logInfo("*** OnEntityDeath, before checks (victim: "
-                + event.getEntity().toString() + ")", HIGHEST);
+        Log.logInfo(HIGHEST, "*** OnEntityDeath, before checks (victim: {})",
+                event.getEntity());
         Entity entity = event.getEntity();
 
         // If there's no damage record, ignore
@@ -82,8 +64,7 @@ public class OdEntityListener implements Listener {
         }
 
         OccurredEvent drop = new OccurredEvent(event);
-        Log.logInfo("EntityDeath drop occurance created. (" + drop.toString()
-                + ")", HIGHEST);
+        Log.logInfo(HIGHEST, "EntityDeath drop occurance created. ({})", drop);
         parent.sectionManager.performDrop(drop);
     }
 
@@ -91,8 +72,8 @@ public class OdEntityListener implements Listener {
     public void onPaintingBreak(PaintingBreakEvent event) {
         // TODO: Should we fire a left click before firing the painting break?
         OccurredEvent drop = new OccurredEvent(event);
-        Log.logInfo("PaintingBreak drop occurance created. (" + drop.toString()
-                + ")", HIGHEST);
+        Log.logInfo(HIGHEST, "PaintingBreak drop occurance created. ({})",
+                drop);
         parent.sectionManager.performDrop(drop);
     }
 
@@ -126,14 +107,21 @@ public class OdEntityListener implements Listener {
                 "EntityExplode occurance detected - drop occurences will be created for each block.",
                 HIGHEST);
 
-        List<Block> blockListCopy = new ArrayList<Block>();
-        blockListCopy.addAll(event.blockList());
-
-        for (Block block : blockListCopy) {
-            OccurredEvent drop = new OccurredEvent(event, block);
+        // Blocks of a material with no drops are skipped without creating an
+        // occurrence for them
+        DropsFilter filter = OtherDropsConfig.dropsFilter;
+        DropBatch batch = new DropBatch(new ExplosionAgent(event.getEntity()),
+                event.getLocation());
+        Set<Block> denied = new HashSet<Block>();
+        for (Block block : event.blockList()) {
+            if (!filter.hasDrops(Trigger.BREAK, block.getType()))
+                continue;
+            OccurredEvent drop = new OccurredEvent(event, block, batch);
             parent.sectionManager.performDrop(drop);
             if (drop.isDenied())
-                event.blockList().remove(block);
+                denied.add(block);
         }
+        if (!denied.isEmpty())
+            event.blockList().removeAll(denied);
     }
 }
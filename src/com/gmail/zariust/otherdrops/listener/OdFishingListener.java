@@ -23,8 +23,8 @@ public class OdFishingListener implements Listener {
         if (event.isCancelled())
             return;
         // TODO: support State.CAUGHT_ENTITY, State.IN_GROUND
-        Log.logInfo("Fishing - state: " + event.getState() + ", caught: "
-                + event.getCaught(), Verbosity.EXTREME);
+        Log.logInfo(Verbosity.EXTREME, "Fishing - state: {}, caught: {}",
+                event.getState(), event.getCaught());
         if (event.getState() == State.CAUGHT_FISH) {
             OccurredEvent drop = new OccurredEvent(event);
             parent.sectionManager.performDrop(drop);
@@ -28,7 +28,9 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
 
 public class OdPlayerListener implements Listener {
     private final OtherDrops parent;
@@ -45,7 +47,12 @@ public class OdPlayerListener implements Listener {
             Log.logInfo("Cancelled event but not AIR - skipping.", Verbosity.HIGHEST);
             return;
         }
-        
+
+        // check for drops before looking for the target block (a ray cast)
+        Trigger trigger = Trigger.fromInteract(event.getAction());
+        if (!OtherDropsConfig.dropsFilter.hasDrops(trigger))
+            return;
+
         if (event.getPlayer() != null) {
 //            if (event.getPlayer().getGameMode().equals(GameMode.CREATIVE)) {
                 // skip for creative mode - TODO: make this configurable?
@@ -63,6 +70,9 @@ public class OdPlayerListener implements Listener {
                 } else {
                     targetBlock = event.getClickedBlock();
                 }
+                if (!OtherDropsConfig.dropsFilter.hasDrops(trigger,
+                        targetBlock.getType()))
+                    return;
 
                 OccurredEvent drop = new OccurredEvent(event, targetBlock);
             parent.sectionManager.performDrop(drop);
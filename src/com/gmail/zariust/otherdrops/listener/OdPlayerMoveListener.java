@@ -24,7 +24,9 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 
 import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
 
 public class OdPlayerMoveListener implements Listener {
     private final OtherDrops parent;
@@ -37,6 +39,9 @@ public class OdPlayerMoveListener implements Listener {
     public void onPlayerMove(PlayerMoveEvent event) {
 
         Block standingOn = event.getPlayer().getLocation().getBlock().getRelative(BlockFace.DOWN);
+        if (!OtherDropsConfig.dropsFilter.hasDrops(Trigger.PLAYER_MOVE,
+                standingOn.getType()))
+            return;
         OccurredEvent drop = new OccurredEvent(event, standingOn);
         parent.sectionManager.performDrop(drop);
     }
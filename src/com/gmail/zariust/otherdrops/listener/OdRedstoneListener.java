@@ -13,6 +13,7 @@ import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.OtherDrops;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
 
 public class OdRedstoneListener implements Listener {
     private final OtherDrops parent;
@@ -24,43 +25,61 @@ public class OdRedstoneListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onBlockRedstoneChange(BlockRedstoneEvent event) {
         Log.logInfo("RedstoneEvent: before checks.", Verbosity.EXTREME);
+        if (!OtherDropsConfig.dropForRedstoneTrigger)
+            return;
+        Trigger trigger = getTrigger(event);
+        if (!OtherDropsConfig.dropsFilter.hasDrops(trigger))
+            return;
 
         Block poweredBlock = event.getBlock();
-        int poweredBlockDataValue = poweredBlock.getTypeId();
-        byte poweredBlockMetaValue = poweredBlock.getData();
-        Log.dMsg("Block Type: " + poweredBlockDataValue + ":"
-                + poweredBlockMetaValue + " (current=" + event.getNewCurrent()
-                + ")");
+        if (Log.isLogging(Verbosity.HIGHEST))
+            Log.dMsg("Block Type: " + poweredBlock.getTypeId() + ":"
+                    + poweredBlock.getData() + " (current="
+                    + event.getNewCurrent() + ")");
 
-        if (OtherDropsConfig.dropForRedstoneTrigger) {
-            if ((event.getOldCurrent() - event.getNewCurrent()) > 0) { // POWER
-                                                                       // decreasing
+        if (OtherDropsConfig.dropsFilter.hasDrops(trigger,
+                poweredBlock.getType())) {
+            if (trigger == Trigger.POWER_DOWN) {
                 OccurredEvent drop = new OccurredEvent(event, poweredBlock);
                 parent.sectionManager.performDrop(drop);
-            } else { // POWER increasing
+            } else {
                 OccurredEvent drop = new OccurredEvent(event, poweredBlock,
                         "UP");
                 parent.sectionManager.performDrop(drop);
             }
-            // Nothing done if newcurrent == oldcurrent as this wouldn't trigger
-            // the event
+        }
+        // Nothing done if newcurrent == oldcurrent as this wouldn't trigger
+        // the event
 
-            if (OtherDropsConfig.globalRedstonewireTriggersSurrounding
-                    && poweredBlock.getType() == Material.REDSTONE_WIRE) {
-                callOdEvent(event, poweredBlock.getRelative(BlockFace.NORTH));
-                callOdEvent(event, poweredBlock.getRelative(BlockFace.EAST));
-                callOdEvent(event, poweredBlock.getRelative(BlockFace.WEST));
-                callOdEvent(event, poweredBlock.getRelative(BlockFace.SOUTH));
-            }
+        if (OtherDropsConfig.globalRedstonewireTriggersSurrounding
+                && poweredBlock.getType() == Material.REDSTONE_WIRE) {
+            callOdEvent(event, trigger,
+                    poweredBlock.getRelative(BlockFace.NORTH));
+            callOdEvent(event, trigger,
+                    poweredBlock.getRelative(BlockFace.EAST));
+            callOdEvent(event, trigger,
+                    poweredBlock.getRelative(BlockFace.WEST));
+            callOdEvent(event, trigger,
+                    poweredBlock.getRelative(BlockFace.SOUTH));
         }
     }
 
-    private void callOdEvent(BlockRedstoneEvent event, Block block) {
+    private Trigger getTrigger(BlockRedstoneEvent event) {
+        if ((event.getOldCurrent() - event.getNewCurrent()) > 0) // POWER
+                                                                 // decreasing
+            return Trigger.POWER_DOWN;
+        return Trigger.POWER_UP;
+    }
+
+    private void callOdEvent(BlockRedstoneEvent event, Trigger trigger,
+            Block block) {
+        Material type = block.getType();
+        if (!OtherDropsConfig.dropsFilter.hasDrops(trigger, type))
+            return;
         // avoid powerable blocks (otherwise we'd double up since they also get
         // a redstonechange event) and AIR
-        if (!isRedStone(block.getType()) && block.getType() != Material.AIR) {
-            if ((event.getOldCurrent() - event.getNewCurrent()) > 0) { // POWER
-                                                                       // decreasing
+        if (!isRedStone(type) && type != Material.AIR) {
+            if (trigger == Trigger.POWER_DOWN) {
                 OccurredEvent drop = new OccurredEvent(event, block);
                 parent.sectionManager.performDrop(drop);
             } else { // POWER increasing
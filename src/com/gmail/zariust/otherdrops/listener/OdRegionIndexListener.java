@@ -0,0 +1,53 @@
+// OtherDrops - a Bukkit plugin
+// Copyright (C) 2011 Robert Sargant, Zarius Tularial, Celtic Minstrel
+//
+// This program is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	 See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program.	 If not, see <http://www.gnu.org/licenses/>.
+
+package com.gmail.zariust.otherdrops.listener;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+import com.gmail.zariust.otherdrops.RegionIndex;
+
+/**
+ * Marks the RegionIndex as out of date when a WorldGuard region command is
+ * used, so that redefined regions are seen by the next drop.
+ */
+public class OdRegionIndexListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        checkCommand(event.getMessage().substring(1));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerCommand(ServerCommandEvent event) {
+        checkCommand(event.getCommand());
+    }
+
+    private void checkCommand(String command) {
+        String name = command.split(" ", 2)[0].toLowerCase();
+        int colon = name.indexOf(':'); // eg. "worldguard:region"
+        if (colon >= 0)
+            name = name.substring(colon + 1);
+        if (name.equals("rg") || name.equals("region")
+                || name.equals("regions") || name.equals("wg")
+                || name.equals("worldguard"))
+            RegionIndex.invalidate();
+    }
+}
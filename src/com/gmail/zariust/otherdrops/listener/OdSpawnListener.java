@@ -38,8 +38,9 @@ public class OdSpawnListener implements Listener {
     public void onCreatureSpawn(CreatureSpawnEvent event) {
         if (event.isCancelled())
             return;
-        Log.logInfo("SpawnEvent: before checks.  Spawned by "
-                + event.getSpawnReason().toString(), Verbosity.EXTREME);
+        Log.logInfo(Verbosity.EXTREME,
+                "SpawnEvent: before checks.  Spawned by {}",
+                event.getSpawnReason());
 
         // This listener should only be registered if "spawned" condition
         // exists, so tag creature
@@ -131,10 +131,8 @@ public abstract class Flag implements Comparable<Flag> {
                                                                                  Verbosity.HIGH);
                                                                          result.dropThis = false;
                                                                      } else {
-                                                                         if (Dependencies
-                                                                                 .getMobArenaHandler()
-                                                                                 .inRunningRegion(
-                                                                                         event.getLocation())) {
+                                                                         if (event
+                                                                                 .isInMobArena()) {
                                                                              Log.logInfo(
                                                                                      "Checking IN_MOB_ARENA flag. In arena = true, drop allowed.",
                                                                                      Verbosity.HIGH);
@@ -226,6 +224,13 @@ public abstract class Flag implements Comparable<Flag> {
         return set;
     }
 
+    /**
+     * @return A small number unique to this flag, eg. for use as a bit index.
+     */
+    public final int ordinal() {
+        return ordinal;
+    }
+
     @Override
     public final int compareTo(Flag other) {
         return Integer.valueOf(ordinal).compareTo(other.ordinal);
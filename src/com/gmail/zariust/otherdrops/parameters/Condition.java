@@ -1,13 +1,17 @@
 package com.gmail.zariust.otherdrops.parameters;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.ConfigurationNode;
 import com.gmail.zariust.otherdrops.Log;
+import com.gmail.zariust.otherdrops.Profiler;
 import com.gmail.zariust.otherdrops.event.CustomDrop;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
 import com.gmail.zariust.otherdrops.parameters.conditions.CooldownCheck;
@@ -20,16 +24,67 @@ import com.gmail.zariust.otherdrops.parameters.conditions.SpawnedCheck;
 public abstract class Condition extends Parameter {
     String conditionName = "undefined";
 
+    // one instance of each distinct shared condition, see getSharedKey()
+    private static final Map<List<Object>, Condition> shared = new HashMap<List<Object>, Condition>();
+    private boolean isShared;
+
     public final boolean check(CustomDrop drop, OccurredEvent occurrence) {
+        long time = Profiler.start();
         boolean result = checkInstance(drop, occurrence);
-        Log.logInfo("Condition '" + this.getClass().getSimpleName() + "' "
-                + (result ? "passed" : "failed"), Verbosity.HIGHEST);
+        if (time != 0)
+            Profiler.stop("condition." + getClass().getSimpleName(), time,
+                    result);
+        Log.logInfo(Verbosity.HIGHEST, "Condition '{}' {}", getClass()
+                .getSimpleName(), (result ? "passed" : "failed"));
         return result;
     }
 
     protected abstract boolean checkInstance(CustomDrop drop,
             OccurredEvent occurrence);
 
+    /**
+     * Conditions whose result only depends on the event (not the drop being
+     * checked) and that have no side effects can return the values that make
+     * them up here. Drops with equal conditions then share one instance, and
+     * it is only checked once per event (see OccurredEvent.checkCondition).
+     * 
+     * @return The values, or null (the default) if the condition can't be
+     *         shared.
+     */
+    protected Object[] getSharedKey() {
+        return null;
+    }
+
+    /**
+     * @return True if the result can be reused for other drops checked
+     *         against the same event.
+     */
+    public final boolean isShared() {
+        return isShared;
+    }
+
+    private static Condition share(Condition condition) {
+        Object[] values = condition.getSharedKey();
+        if (values == null)
+            return condition;
+        List<Object> key = new ArrayList<Object>(values.length + 1);
+        key.add(condition.getClass());
+        key.addAll(Arrays.asList(values));
+        Condition existing = shared.get(key);
+        if (existing != null)
+            return existing;
+        condition.isShared = true;
+        shared.put(key, condition);
+        return condition;
+    }
+
+    /**
+     * Forget the shared conditions, eg. before loading all drops again.
+     */
+    public static void clearShared() {
+        shared.clear();
+    }
+
     // protected abstract static List<Condition> parseInstance(ConfigurationNode
     // node);
 
@@ -52,7 +107,8 @@ public abstract class Condition extends Parameter {
         for (Condition condition : conditions) {
             conditionsFromParse = condition.parse(node);
             if (conditionsFromParse != null)
-                conditionsReturn.addAll(conditionsFromParse);
+                for (Condition parsed : conditionsFromParse)
+                    conditionsReturn.add(share(parsed));
         }
         return conditionsReturn;
     }
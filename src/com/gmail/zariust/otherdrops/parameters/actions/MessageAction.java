@@ -25,7 +25,9 @@ import com.gmail.zariust.otherdrops.parameters.Action;
 import com.gmail.zariust.otherdrops.subject.CreatureSubject;
 import com.gmail.zariust.otherdrops.subject.PlayerSubject;
 import com.gmail.zariust.otherdrops.subject.ProjectileAgent;
+import com.gmail.zariust.otherdrops.things.ODTemplate;
 import com.gmail.zariust.otherdrops.things.ODVariables;
+import com.gmail.zariust.otherdrops.things.ODVariables.Var;
 
 public class MessageAction extends Action {
     // message.player, message.radius@<r>, message.world, message.server
@@ -47,8 +49,8 @@ public class MessageAction extends Action {
 
     protected MessageType           messageType;
     protected double                radius  = OtherDropsConfig.gActionRadius;
-    private boolean                 variableParseRequired = false;
-    private final List<String>            messages = new ArrayList<String>(); // this can contain variables, parse at runtime
+    private final List<String>            messages = new ArrayList<String>();
+    private final List<ODTemplate>        templates = new ArrayList<ODTemplate>(); // compiled messages, variables are filled in at runtime
 
     public MessageAction(Object messageToParse, MessageType messageType2) {
         this(messageToParse, messageType2, 0);
@@ -72,21 +74,22 @@ public class MessageAction extends Action {
         this.radius = radius;
         
         for (String msg : tmpMessages) {
-            messages.add(ODVariables.preParse(msg));
-            if (msg.contains("%") || msg.contains("<")) variableParseRequired = true;
+            String parsed = ODVariables.preParse(msg);
+            messages.add(parsed);
+            templates.add(ODTemplate.compile(parsed));
         }
 
     }
 
     @Override
     public boolean act(CustomDrop drop, OccurredEvent occurence) {
-        String message = getRandomMessage(drop, occurence, this.messages, variableParseRequired);
+        String message = getRandomTemplate(drop, occurence, templates);
         if (message.isEmpty())
             return false;
 
-        Log.logInfo("Message action - messages = " + messages.toString()
-                + ", message=" + message + ", type=" + messageType.toString(),
-                Verbosity.HIGH);
+        Log.logInfo(Verbosity.HIGH,
+                "Message action - messages = {}, message={}, type={}",
+                messages, message, messageType);
 
         switch (messageType) {
         case ATTACKER:
@@ -144,11 +147,22 @@ public class MessageAction extends Action {
 
     static public String getRandomMessage(CustomDrop drop,
             OccurredEvent occurence, List<String> messages, boolean parseVariablesRequired) {
-        double amount = occurence.getCustomDropAmount();
         if (messages == null || messages.isEmpty())
             return "";
         String msg = messages.get(drop.rng.nextInt(messages.size()));
-        if (parseVariablesRequired) msg = parseVariables(msg, drop, occurence, amount);
+        if (parseVariablesRequired)
+            msg = parseVariables(ODTemplate.compile(msg), drop, occurence,
+                    occurence.getCustomDropAmount());
+        return (msg == null) ? "" : msg;
+    }
+
+    static public String getRandomTemplate(CustomDrop drop,
+            OccurredEvent occurence, List<ODTemplate> templates) {
+        if (templates == null || templates.isEmpty())
+            return "";
+        String msg = parseVariables(
+                templates.get(drop.rng.nextInt(templates.size())), drop,
+                occurence, occurence.getCustomDropAmount());
         return (msg == null) ? "" : msg;
     }
 
@@ -156,28 +170,54 @@ public class MessageAction extends Action {
             OccurredEvent occurence, double amount) {
         if (msg == null)
             return msg;
+        return parseVariables(ODTemplate.compile(msg), drop, occurence, amount);
+    }
 
-        String dropName = "";
-        String toolName = "";
-        String playerName = "";
-        String victimName = "";
-        String quantityString = "";
-        String deathMessage = "";
-        String loreName = "";
+    /**
+     * Fill in the variables for a message - only the values that the message
+     * actually uses are looked up.
+     */
+    static public String parseVariables(ODTemplate msg, CustomDrop drop,
+            OccurredEvent occurence, double amount) {
+        if (msg == null)
+            return null;
+        if (!msg.isDynamic())
+            return msg.toString();
 
+        ODVariables vars = new ODVariables();
         if (drop != null) {
-            if (drop instanceof SimpleDrop) {
-                if (((SimpleDrop) drop).getDropped() != null) {
-                    if (((SimpleDrop) drop).getDropped().isQuantityInteger())
-                        quantityString = String.valueOf(Math.round(amount));
-                    else
-                        quantityString = Double.toString(amount);
+            if (msg.uses(Var.QUANTITY) || msg.uses(Var.QUANTITY_UPPER)) {
+                String quantityString = "";
+                if (drop instanceof SimpleDrop) {
+                    if (((SimpleDrop) drop).getDropped() != null) {
+                        if (((SimpleDrop) drop).getDropped().isQuantityInteger())
+                            quantityString = String.valueOf(Math.round(amount));
+                        else
+                            quantityString = Double.toString(amount);
+                    }
                 }
+                vars.setQuantity(quantityString);
             }
-            dropName = drop.getDropName();
+            if (msg.uses(Var.DROP) || msg.uses(Var.DROP_UPPER))
+                vars.setDropName(drop.getDropName());
+        } else {
+            vars.setQuantity("");
+            vars.setDropName("");
+        }
+
+        if (occurence == null) {
+            vars.setPlayerName("").setVictimName("").setToolName("")
+                    .setDeathMessage("").setloreName("");
+            return vars.parse(msg);
         }
 
-        if (occurence != null) {
+        if (msg.uses(Var.TOOL) || msg.uses(Var.TOOL_UPPER)
+                || msg.uses(Var.PLAYER) || msg.uses(Var.PLAYER_UPPER)
+                || msg.uses(Var.DISPLAY_NAME) || msg.uses(Var.LORE_NAME)) {
+            String toolName = "";
+            String playerName = "";
+            String loreName = "";
+
             if (occurence.getTool() != null)
                 toolName = occurence.getTool().getReadableName();
 
@@ -218,18 +258,28 @@ public class MessageAction extends Action {
                     loreName = ((LivingEntity) ent).getCustomName();
                 }
             }
-            victimName = occurence.getTarget().getReadableName();
+            vars.setPlayerName(playerName).setToolName(toolName)
+                    .setloreName(loreName);
+        }
+
+        if (msg.uses(Var.VICTIM))
+            vars.setVictimName(occurence.getTarget().getReadableName());
 
+        if (msg.uses(Var.DEATH_MESSAGE)) {
+            String deathMessage = "";
             if (occurence.getRealEvent() instanceof PlayerDeathEvent) {
                 PlayerDeathEvent ede = (PlayerDeathEvent) occurence
                         .getRealEvent();
 
                 deathMessage = ede.getDeathMessage();
             }
+            vars.setDeathMessage(deathMessage);
         }
 
-        return new ODVariables().setPlayerName(playerName).setVictimName(victimName).setDropName(dropName)
-                .setToolName(toolName).setQuantity(quantityString).setDeathMessage(deathMessage).setloreName(loreName).setLocation(occurence.getLocation())
-                .parse(msg);
+        if (msg.uses(Var.LOC_X) || msg.uses(Var.LOC_Y) || msg.uses(Var.LOC_Z)
+                || msg.uses(Var.LOC_WORLD))
+            vars.setLocation(occurence.getLocation());
+
+        return vars.parse(msg);
     }
 }
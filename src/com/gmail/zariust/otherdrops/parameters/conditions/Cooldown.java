@@ -1,39 +1,157 @@
 package com.gmail.zariust.otherdrops.parameters.conditions;
 
-import java.util.HashSet;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.gmail.zariust.common.Verbosity;
+import com.gmail.zariust.otherdrops.Log;
 
 /**
  * @author Tirelessly @ Bukkit Forums, zarius (removed player name conditions)
  * 
  */
 public class Cooldown {
-    private static Set<PlayerCooldown> cooldowns = new HashSet<PlayerCooldown>();
+    // Keyed by lower case name, as cooldown names aren't case sensitive
+    private static final ConcurrentMap<String, PlayerCooldown> cooldowns      = new ConcurrentHashMap<String, PlayerCooldown>();
+
+    // Expired cooldowns are thrown away at most this often (when a cooldown
+    // is added)
+    private static final long                                  SWEEP_INTERVAL = 60000;
+    private static volatile long                               lastSweep      = System.currentTimeMillis();
+
+    private static final int                                   FILE_VERSION   = 1;
 
     public static void addCooldown(String cooldownName, long lengthInMillis) {
         PlayerCooldown pc = new PlayerCooldown(cooldownName, lengthInMillis);
-        Iterator<PlayerCooldown> it = cooldowns.iterator();
-        // This section prevents duplicate cooldowns
+        // This replaces any duplicate cooldown
+        cooldowns.put(normalize(cooldownName), pc);
+        sweepIfDue();
+    }
+
+    public static PlayerCooldown getCooldown(String cooldownName) {
+        return cooldowns.get(normalize(cooldownName));
+    }
+
+    private static String normalize(String cooldownName) {
+        return cooldownName.toLowerCase();
+    }
+
+    private static void sweepIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep < SWEEP_INTERVAL)
+            return;
+        lastSweep = now;
+        sweep();
+    }
+
+    /**
+     * Remove all cooldowns that are over.
+     * 
+     * @return The number of cooldowns removed.
+     */
+    public static int sweep() {
+        int removed = 0;
+        Iterator<PlayerCooldown> it = cooldowns.values().iterator();
         while (it.hasNext()) {
-            PlayerCooldown iterated = it.next();
-            if (iterated.getCooldownName().equalsIgnoreCase(
-                    pc.getCooldownName())) {
+            if (it.next().isOver()) {
                 it.remove();
+                removed++;
             }
         }
-        cooldowns.add(pc);
+        if (removed > 0)
+            Log.logInfo(Verbosity.HIGHEST,
+                    "Cooldowns: removed {} expired, {} left.", removed,
+                    cooldowns.size());
+        return removed;
     }
 
-    public static PlayerCooldown getCooldown(String cooldownName) {
-        Iterator<PlayerCooldown> it = cooldowns.iterator();
-        while (it.hasNext()) {
-            PlayerCooldown pc = it.next();
-            if (pc.getCooldownName().equalsIgnoreCase(cooldownName)) {
-                return pc;
+    public static int size() {
+        return cooldowns.size();
+    }
+
+    /**
+     * Save the cooldowns that are still running, so that they survive a
+     * restart.
+     */
+    public static void save(File file) {
+        sweep();
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file)));
+            out.writeInt(FILE_VERSION);
+            out.writeInt(cooldowns.size());
+            for (PlayerCooldown pc : cooldowns.values()) {
+                out.writeUTF(pc.getCooldownName());
+                out.writeLong(pc.getLength());
+                out.writeLong(pc.getEndTime());
+            }
+            Log.logInfo("Saved " + cooldowns.size() + " cooldown(s).",
+                    Verbosity.HIGH);
+        } catch (IOException ex) {
+            Log.logWarning("Failed to save cooldowns to " + file.getName()
+                    + ": " + ex.getMessage());
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Load any cooldowns saved by save(), skipping those that have run out in
+     * the meantime.
+     */
+    public static void load(File file) {
+        if (!file.exists())
+            return;
+        DataInputStream in = null;
+        int loaded = 0;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(file)));
+            if (in.readInt() != FILE_VERSION) {
+                Log.logWarning("Ignoring " + file.getName()
+                        + " - unknown version.");
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                PlayerCooldown pc = new PlayerCooldown(in.readUTF(),
+                        in.readLong(), in.readLong());
+                if (!pc.isOver()) {
+                    cooldowns.put(normalize(pc.getCooldownName()), pc);
+                    loaded++;
+                }
+            }
+            Log.logInfo("Loaded " + loaded + " cooldown(s).", Verbosity.HIGH);
+        } catch (EOFException ex) {
+            Log.logWarning("Cooldown file " + file.getName()
+                    + " is incomplete, loaded " + loaded + " cooldown(s).");
+        } catch (IOException ex) {
+            Log.logWarning("Failed to load cooldowns from " + file.getName()
+                    + ": " + ex.getMessage());
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                }
             }
         }
-        return null;
     }
 
 }
@@ -43,7 +161,7 @@ class PlayerCooldown {
     private long         startTime;
     private final String cooldownName;
     private final long   lengthInMillis;
-    private long         endTime;
+    private volatile long endTime;
 
     PlayerCooldown(String cooldownName, long lengthInMillis) {
         this.cooldownName = cooldownName;
@@ -52,6 +170,13 @@ class PlayerCooldown {
         this.endTime = startTime + this.lengthInMillis;
     }
 
+    PlayerCooldown(String cooldownName, long lengthInMillis, long endTime) {
+        this.cooldownName = cooldownName;
+        this.lengthInMillis = lengthInMillis;
+        this.endTime = endTime;
+        this.startTime = endTime - lengthInMillis;
+    }
+
     public boolean isOver() {
         return endTime < System.currentTimeMillis();
     }
@@ -64,6 +189,14 @@ class PlayerCooldown {
         return cooldownName;
     }
 
+    long getLength() {
+        return lengthInMillis;
+    }
+
+    long getEndTime() {
+        return endTime;
+    }
+
     public void reset() {
         startTime = System.currentTimeMillis();
         endTime = startTime + lengthInMillis;
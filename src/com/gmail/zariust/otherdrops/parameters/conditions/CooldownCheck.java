@@ -3,6 +3,7 @@ package com.gmail.zariust.otherdrops.parameters.conditions;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.gmail.zariust.common.Verbosity;
 import com.gmail.zariust.otherdrops.ConfigurationNode;
 import com.gmail.zariust.otherdrops.Log;
 import com.gmail.zariust.otherdrops.event.CustomDrop;
@@ -11,7 +12,7 @@ import com.gmail.zariust.otherdrops.parameters.Condition;
 import com.gmail.zariust.otherdrops.parameters.actions.MessageAction;
 
 public class CooldownCheck extends Condition {
-    private String       cooldown;
+    private final String cooldown;
     private final Double time;
 
     String               name = "CooldownCheck";
@@ -23,7 +24,9 @@ public class CooldownCheck extends Condition {
 
     @Override
     public boolean checkInstance(CustomDrop drop, OccurredEvent occurrence) {
-        cooldown = MessageAction.parseVariables(cooldown, drop, occurrence, 1);
+        // cooldown is a template (eg. %p_mining), so fill it in for this event
+        String cooldown = MessageAction.parseVariables(this.cooldown, drop,
+                occurrence, 1);
 
         PlayerCooldown pc = Cooldown.getCooldown(cooldown);
         if (pc == null) // The player hasn't activated a cooldown for this yet
@@ -36,8 +39,10 @@ public class CooldownCheck extends Condition {
                 pc.reset();
                 return true;
             } else {
-                Log.dMsg("Cooldown '" + cooldown + "' has: "
-                        + ((double) pc.getTimeLeft() / 1000) + "Seconds left");
+                if (Log.isLogging(Verbosity.HIGHEST))
+                    Log.dMsg("Cooldown '" + cooldown + "' has: "
+                            + ((double) pc.getTimeLeft() / 1000)
+                            + "Seconds left");
                 return false;
             }
         }
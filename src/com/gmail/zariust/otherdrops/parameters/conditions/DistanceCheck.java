@@ -33,7 +33,7 @@ public class DistanceCheck extends Condition {
 
         Log.logInfo("DistanceCheck - start", Verbosity.HIGHEST);
 
-        Log.logInfo("DistanceCheck - " + loc.toString() + " vs " + locCheck, Verbosity.HIGH);
+        Log.logInfo(Verbosity.HIGH, "DistanceCheck - {} vs {}", loc, locCheck);
 
         Double actualDistance = check2dDistance(loc.getX(), loc.getZ(), locCheck.getX(), locCheck.getZ());
         if (actualDistance > distance) {
@@ -47,6 +47,11 @@ public class DistanceCheck extends Condition {
         return Math.sqrt(Math.pow((x2 - x1), 2) + Math.pow((y2 - y1), 2));
     }
 
+    @Override
+    protected Object[] getSharedKey() {
+        return new Object[] { distance, locCheck };
+    }
+
     @Override
     public List<Condition> parse(ConfigurationNode node) {
         Location locationToMeasureAgainst = new Location(null, 0, 0, 0);
@@ -14,6 +14,7 @@ import com.gmail.zariust.otherdrops.parameters.Condition;
 import com.gmail.zariust.otherdrops.parameters.actions.MessageAction;
 import com.gmail.zariust.otherdrops.subject.PlayerSubject;
 import com.gmail.zariust.otherdrops.subject.ProjectileAgent;
+import com.gmail.zariust.otherdrops.things.ODTemplate;
 import com.gmail.zariust.otherdrops.things.ODVariables;
 
 public class LoreNameCheck extends Condition {
@@ -29,8 +30,8 @@ public class LoreNameCheck extends Condition {
     public boolean checkInstance(CustomDrop drop, OccurredEvent occurrence) {
         String parsedLorename = MessageAction.parseVariables(loreName, drop,
                 occurrence, -1);
-        Log.logInfo("Starting lorename check (" + parsedLorename + ")",
-                Verbosity.HIGHEST);
+        Log.logInfo(Verbosity.HIGHEST, "Starting lorename check ({})",
+                parsedLorename);
         if (occurrence.getTool() instanceof PlayerSubject) {
             return checkLoreName((PlayerSubject) occurrence.getTool(),
                     parsedLorename);
@@ -49,13 +50,13 @@ public class LoreNameCheck extends Condition {
         if (item == null)
             return false; // not sure when item would be null but it can be
 
-        Log.logInfo("tool name = " + item.getType().name(), Verbosity.HIGHEST);
+        Log.logInfo(Verbosity.HIGHEST, "tool name = {}", item.getType());
         if (item.hasItemMeta()) {
             String displayName = item.getItemMeta().getDisplayName();
             if (displayName != null) {
-                Log.logInfo("Checking for lorename condition... '"
-                        + displayName + "' == '" + parsedLorename + "'",
-                        Verbosity.HIGHEST);
+                Log.logInfo(Verbosity.HIGHEST,
+                        "Checking for lorename condition... '{}' == '{}'",
+                        displayName, parsedLorename);
                 if (displayName.equalsIgnoreCase(parsedLorename))
                     return true;
             } else {
@@ -65,6 +66,15 @@ public class LoreNameCheck extends Condition {
         return false;
     }
 
+    // only if the name has no variables or random parts (they can depend on
+    // the drop, or differ between checks)
+    @Override
+    protected Object[] getSharedKey() {
+        if (loreName == null || ODTemplate.compile(loreName).isDynamic())
+            return null;
+        return new Object[] { loreName };
+    }
+
     @Override
     public List<Condition> parse(ConfigurationNode node) {
         String loreName = node.getString("lorename");
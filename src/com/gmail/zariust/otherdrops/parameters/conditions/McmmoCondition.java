@@ -64,6 +64,11 @@ public class McmmoCondition extends Condition {
         return false;
     }
 
+    @Override
+    protected Object[] getSharedKey() {
+        return new Object[] { type, parameterValue };
+    }
+
     // @Override
     public List<Condition> parse(ConfigurationNode parseMe) {
         List<Condition> conditions = new ArrayList<Condition>();
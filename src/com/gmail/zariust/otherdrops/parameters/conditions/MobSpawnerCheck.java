@@ -4,11 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.World;
-import org.bukkit.block.Block;
 
 import com.gmail.zariust.otherdrops.ConfigurationNode;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
+import com.gmail.zariust.otherdrops.SpawnerIndex;
 import com.gmail.zariust.otherdrops.event.CustomDrop;
 import com.gmail.zariust.otherdrops.event.OccurredEvent;
 import com.gmail.zariust.otherdrops.parameters.Condition;
@@ -34,6 +33,11 @@ public class MobSpawnerCheck extends Condition {
                     radius);
     }
 
+    @Override
+    protected Object[] getSharedKey() {
+        return new Object[] { radius, not };
+    }
+
     @Override
     public List<Condition> parse(ConfigurationNode node) {
         Integer radius = node.getInteger("mobspawnerinradius",
@@ -47,6 +51,7 @@ public class MobSpawnerCheck extends Condition {
         if (radius == null)
             return null;
 
+        OtherDropsConfig.trackMobSpawners = true;
         List<Condition> conditionList = new ArrayList<Condition>();
         conditionList.add(new MobSpawnerCheck(radius, not));
         return conditionList;
@@ -54,7 +59,7 @@ public class MobSpawnerCheck extends Condition {
 
     /**
      * mobSpawnerNear - determines if a mobspawner is within radius of a given
-     * location (used under Public Domain licence from MobBounty by IchigoKyger)
+     * location
      * 
      * @param loc
      *            - location to check for spawners within given radius
@@ -66,25 +71,7 @@ public class MobSpawnerCheck extends Condition {
         if (radius == 0 || loc == null)
             return false;
 
-        World world;
-        int x1, x2, y1, y2, z1, z2;
-
-        world = loc.getWorld();
-        x1 = (int) (loc.getX());
-        y1 = (int) (loc.getY());
-        z1 = (int) (loc.getZ());
-
-        for (x2 = 0 - radius; x2 <= radius; x2++) {
-            for (y2 = 0 - radius; y2 <= radius; y2++) {
-                for (z2 = 0 - radius; z2 <= radius; z2++) {
-                    Block block = world.getBlockAt(x1 + x2, y1 + y2, z1 + z2);
-
-                    if (block.getType() == Material.MOB_SPAWNER)
-                        return true;
-                }
-            }
-        }
-        return false;
+        return SpawnerIndex.isSpawnerNear(loc, radius);
     }
 
 }
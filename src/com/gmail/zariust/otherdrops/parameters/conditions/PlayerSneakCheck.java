@@ -41,6 +41,11 @@ public class PlayerSneakCheck extends Condition {
         }
     }
 
+    @Override
+    protected Object[] getSharedKey() {
+        return new Object[] { isEnabled };
+    }
+
     @Override
     public List<Condition> parse(ConfigurationNode node) {
         Log.dMsg("PlayerSneakCheck.parse(): Checking if PlayerSneakcheck should be enabled! " + node.toString());
@@ -52,9 +52,9 @@ public class SpawnedCheck extends Condition {
                 spawnReason = (String) entity.getMetadata("CreatureSpawnedBy")
                         .get(0).value();
 
-            Log.logInfo(
-                    "SpawnedCheck - checking: " + spawnReasonsStored.toString()
-                            + " vs actual: " + spawnReason, Verbosity.HIGHEST);
+            Log.logInfo(Verbosity.HIGHEST,
+                    "SpawnedCheck - checking: {} vs actual: {}",
+                    spawnReasonsStored, spawnReason);
             return CustomDrop.checkList(spawnReason.toUpperCase(),
                     spawnReasonsStored);
         } else {
@@ -64,6 +64,11 @@ public class SpawnedCheck extends Condition {
         }
     }
 
+    @Override
+    protected Object[] getSharedKey() {
+        return new Object[] { spawnReasonsStored };
+    }
+
     @Override
     public List<Condition> parse(ConfigurationNode node) {
         Map<String, Boolean> value = new HashMap<String, Boolean>();
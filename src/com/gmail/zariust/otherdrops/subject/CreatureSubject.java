@@ -36,7 +36,10 @@ import com.gmail.zariust.otherdrops.options.ToolDamage;
 
 public class CreatureSubject extends LivingSubject {
     private final EntityType creature;
-    private final Data       data;
+    private Data             data;
+    // for subjects made from an actual entity the data is only parsed from
+    // it when needed, see getData()
+    private boolean          dataPending;
     private Entity           agent;
     private String           customName;
 
@@ -57,8 +60,8 @@ public class CreatureSubject extends LivingSubject {
     }
 
     public CreatureSubject(Entity damager) {
-        this(damager.getType(), CreatureData.parse(damager), damager);
-        agent = damager;
+        this(damager.getType(), (Data) null, damager);
+        dataPending = true;
     }
 
     public CreatureSubject(EntityType tool, int d, Entity damager) {
@@ -85,9 +88,10 @@ public class CreatureSubject extends LivingSubject {
         // Integer thisData = null;
         // Integer toolData = null;
         boolean dataMatch = false;
+        Data data = getData();
         if (data != null)
-            dataMatch = data.matches(tool.data);
-        else if (tool.data == null)
+            dataMatch = data.matches(tool.getData());
+        else if (tool.getData() == null)
             dataMatch = true;
 
         // Log.logInfo("CreatureSubject: checking isEqual: creature=tool.creature (" + creature.toString() + ", " + tool.creature.toString() + ": " + (creature == tool.creature) + ") && dataMatch = " + dataMatch, EXTREME);
@@ -119,13 +123,14 @@ public class CreatureSubject extends LivingSubject {
                     EXTREME);
             return true;
         }
-        if (data == null) {
+        if (getData() == null) {
             boolean match = (creature == tool.creature);
-            Log.logInfo(
-                    "CreatureSubject.match - data = null. creature: "
-                            + creature.toString() + ", tool.creature: "
-                            + tool.creature.toString() + ", match=" + match,
-                    EXTREME);
+            if (Log.isLogging(EXTREME))
+                Log.logInfo(
+                        "CreatureSubject.match - data = null. creature: "
+                                + creature.toString() + ", tool.creature: "
+                                + tool.creature.toString() + ", match="
+                                + match, EXTREME);
             return match;
         }
 
@@ -145,7 +150,7 @@ public class CreatureSubject extends LivingSubject {
     }
 
     public int getCreatureData() {
-        return data.getData();
+        return getData().getData();
     }
 
     public Entity getAgent() {
@@ -219,15 +224,20 @@ public class CreatureSubject extends LivingSubject {
             return "ANY_CREATURE";
         String ret = "CREATURE_" + creature.toString();
         // TODO: Will data ever be null, or will it just be 0?
+        Data data = getData();
         if (data != null) {
             String dataString = data.get(creature);
-            if (!dataString.isEmpty()) ret += "@" + data.get(creature);            
+            if (!dataString.isEmpty()) ret += "@" + dataString;
         }
         return ret;
     }
 
     @Override
     public Data getData() {
+        if (dataPending) {
+            data = CreatureData.parse(agent);
+            dataPending = false;
+        }
         return data;
     }
 
@@ -35,6 +35,15 @@ public class ExplosionAgent implements Agent {
     private Object explosive;
     // private Explosive bomb; // Creeper doesn't implement Explosive yet...
     private Entity bomb;
+    // Which of the aliases in matches() this agent is (worked out on first
+    // use, as explosive doesn't change)
+    private int    alias = -1;
+
+    private static final int ALIAS_NONE              = 0;
+    private static final int ALIAS_TNT               = 1;
+    private static final int ALIAS_CREEPER           = 2;
+    private static final int ALIAS_CREEPER_UNPOWERED = 3;
+    private static final int ALIAS_CREEPER_POWERED   = 4;
 
     public ExplosionAgent() { // Wildcard
         this(null, (Material) null);
@@ -98,25 +107,21 @@ public class ExplosionAgent implements Agent {
         // differently but explosion_tnt in the config should match the
         // block_explosion event
         if (other instanceof EnvironmentAgent) {
-            if (this.toString().equalsIgnoreCase("explosion_tnt")
-                    && other.toString().equalsIgnoreCase("[block_explosion]")) {
-                return true;
-            } else {
-                return false;
-            }
+            return getAlias() == ALIAS_TNT
+                    && other.toString().equalsIgnoreCase("[block_explosion]");
         } else if (other instanceof CreatureSubject) {
             // Add further aliases - EXPLOSION_CREEPER in config matches
             // CREATURE_CREEPER (since users will expect this)
-            if ((this.toString().equalsIgnoreCase("explosion_creeper") || this
-                    .toString().equalsIgnoreCase("explosion_creeper@unpowered"))
-                    && (other.toString().equalsIgnoreCase("CREATURE_CREEPER") || other
-                            .toString().equalsIgnoreCase(
-                                    "CREATURE_CREEPER@UNPOWERED"))) {
+            int alias = getAlias();
+            if (alias < ALIAS_CREEPER)
+                return false;
+            String otherName = other.toString();
+            if (alias != ALIAS_CREEPER_POWERED
+                    && (otherName.equalsIgnoreCase("CREATURE_CREEPER") || otherName
+                            .equalsIgnoreCase("CREATURE_CREEPER@UNPOWERED"))) {
                 return true;
-            } else if ((this.toString().equalsIgnoreCase("explosion_creeper") || this
-                    .toString().equalsIgnoreCase("explosion_creeper@powered"))
-                    && other.toString().equalsIgnoreCase(
-                            "CREATURE_CREEPER@POWERED")) {
+            } else if (alias != ALIAS_CREEPER_UNPOWERED
+                    && otherName.equalsIgnoreCase("CREATURE_CREEPER@POWERED")) {
                 return true;
             } else {
                 return false;
@@ -131,6 +136,23 @@ public class ExplosionAgent implements Agent {
         return explosive.equals(tool.explosive);
     }
 
+    private int getAlias() {
+        if (alias < 0) {
+            String name = toString();
+            if (name.equalsIgnoreCase("explosion_tnt"))
+                alias = ALIAS_TNT;
+            else if (name.equalsIgnoreCase("explosion_creeper"))
+                alias = ALIAS_CREEPER;
+            else if (name.equalsIgnoreCase("explosion_creeper@unpowered"))
+                alias = ALIAS_CREEPER_UNPOWERED;
+            else if (name.equalsIgnoreCase("explosion_creeper@powered"))
+                alias = ALIAS_CREEPER_POWERED;
+            else
+                alias = ALIAS_NONE;
+        }
+        return alias;
+    }
+
     @Override
     public ItemCategory getType() {
         return ItemCategory.EXPLOSION;
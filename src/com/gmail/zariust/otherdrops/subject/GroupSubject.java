@@ -20,7 +20,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
-import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.OtherDropsConfig;
+import com.gmail.zariust.otherdrops.PermissionCache;
 import com.gmail.zariust.otherdrops.data.Data;
 import com.gmail.zariust.otherdrops.options.ConfigOnly;
 import com.gmail.zariust.otherdrops.options.ToolDamage;
@@ -32,6 +33,7 @@ public class GroupSubject extends LivingSubject {
     public GroupSubject(String grp) {
         super(null);
         group = grp;
+        OtherDropsConfig.cachePermissions = true;
     }
 
     public String getGroup() {
@@ -61,8 +63,8 @@ public class GroupSubject extends LivingSubject {
         if (!(other instanceof PlayerSubject))
             return false;
         PlayerSubject player = (PlayerSubject) other;
-        List<String> playerGroups = OtherDrops.plugin.getGroups(player
-                .getPlayer());
+        List<String> playerGroups = PermissionCache.get(player.getPlayer())
+                .getGroups();
         return playerGroups.contains(group);
     }
 
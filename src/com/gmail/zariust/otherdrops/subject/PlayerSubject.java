@@ -33,6 +33,8 @@ public class PlayerSubject extends LivingSubject {
     private String    name;
     private Player    agent;
     private boolean   anyObject;
+    // The equivalent PROJECTILE_ANY@PLAYER(;name) agent, built on first use
+    private ProjectileAgent projectileMatcher;
 
     public PlayerSubject(boolean anyObject) {
         this((String) null);
@@ -85,13 +87,9 @@ public class PlayerSubject extends LivingSubject {
     public boolean matches(Subject other) {
         // ProjectileAgent could be a player, so check against it if neccessary
         if (!anyObject && other instanceof ProjectileAgent) {
-            if (name == null)
-                return ProjectileAgent.parse("PROJECTILE_ANY", "PLAYER")
-                        .matches(other);
-            else
-                return ProjectileAgent
-                        .parse("PROJECTILE_ANY", "PLAYER;" + name).matches(
-                                other);
+            if (projectileMatcher == null)
+                projectileMatcher = new ProjectileAgent((Material) null, name);
+            return projectileMatcher.matches(other);
         }
 
         if (!(other instanceof PlayerSubject))
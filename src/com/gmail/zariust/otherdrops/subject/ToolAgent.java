@@ -132,9 +132,11 @@ public class ToolAgent implements Agent {
         // Find the tool that the player is holding
         PlayerSubject tool = (PlayerSubject) other;
 
-        Log.logInfo("tool agent check : id=" + id.toString() + " gettool="
-                + tool.getTool() + " material=" + tool.getMaterial()
-                + " id=mat:" + (id == tool.getMaterial()), Verbosity.EXTREME);
+        if (Log.isLogging(Verbosity.EXTREME))
+            Log.logInfo("tool agent check : id=" + id.toString() + " gettool="
+                    + tool.getTool() + " material=" + tool.getMaterial()
+                    + " id=mat:" + (id == tool.getMaterial()),
+                    Verbosity.EXTREME);
         if (!enchantments.isEmpty()) {
             boolean match = false;
             match = CommonEnchantments.matches(enchantments,
@@ -153,7 +155,7 @@ public class ToolAgent implements Agent {
         if (id == null)
             return true;
         else if (quantityRequired > tool.getTool().quantityRequired
-                && id.toString() != "AIR") {
+                && id != Material.AIR) {
             Log.logInfo("Toolagent check: quantity required failed.",
                     Verbosity.HIGHEST);
             return false;
@@ -0,0 +1,254 @@
+package com.gmail.zariust.otherdrops.things;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.gmail.zariust.otherdrops.OtherDrops;
+import com.gmail.zariust.otherdrops.options.IntRange;
+import com.gmail.zariust.otherdrops.things.ODVariables.Var;
+
+/**
+ * A message (or command, lore, etc) split up into literal text, variables
+ * (eg. %p) and random selectors (eg. <sword|mace> or <1-4>) so that it
+ * only needs to be parsed once.
+ *
+ * Variables that haven't been set are left in the output as they are.
+ */
+public class ODTemplate {
+    private static final Map<String, ODTemplate> cache      = new ConcurrentHashMap<String, ODTemplate>();
+    // templates are normally only compiled from config strings, this is just
+    // a safety net
+    private static final int                     MAX_CACHED = 2000;
+
+    private static final ThreadLocal<StringBuilder> buffer = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(128);
+        }
+    };
+
+    private final String                         source;
+    private final Segment[]                      segments;
+    private final EnumSet<Var>                   uses;
+    private final boolean                        random;
+
+    private ODTemplate(String source, List<Segment> segments,
+            EnumSet<Var> uses, boolean random) {
+        this.source = source;
+        this.segments = segments.toArray(new Segment[segments.size()]);
+        this.uses = uses;
+        this.random = random;
+    }
+
+    /**
+     * Get the compiled template for a string - templates are cached, so
+     * repeated calls for the same string don't parse it again.
+     *
+     * @param msg
+     *            The string to compile.
+     * @return The template, or null if msg is null.
+     */
+    public static ODTemplate compile(String msg) {
+        if (msg == null)
+            return null;
+        ODTemplate template = cache.get(msg);
+        if (template == null) {
+            template = parse(msg);
+            if (cache.size() >= MAX_CACHED)
+                cache.clear();
+            cache.put(msg, template);
+        }
+        return template;
+    }
+
+    public static List<ODTemplate> compile(List<String> lines) {
+        if (lines == null)
+            return null;
+        List<ODTemplate> templates = new ArrayList<ODTemplate>(lines.size());
+        for (String line : lines)
+            templates.add(compile(line));
+        return templates;
+    }
+
+    static ODTemplate parse(String msg) {
+        List<Segment> segments = new ArrayList<Segment>();
+        EnumSet<Var> uses = EnumSet.noneOf(Var.class);
+        boolean random = false;
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < msg.length()) {
+            char c = msg.charAt(i);
+            if (c == '%') {
+                Var var = Var.match(msg, i);
+                if (var != null) {
+                    addLiteral(segments, literal);
+                    segments.add(new Variable(var));
+                    uses.add(var);
+                    i += var.token.length();
+                    continue;
+                }
+            } else if (c == '<') {
+                Segment selector = parseSelector(msg, i);
+                if (selector != null) {
+                    addLiteral(segments, literal);
+                    segments.add(selector);
+                    if (selector instanceof Choice)
+                        for (ODTemplate option : ((Choice) selector).options)
+                            uses.addAll(option.uses);
+                    random = true;
+                    i = msg.indexOf('>', i) + 1;
+                    continue;
+                }
+            }
+            literal.append(c);
+            i++;
+        }
+        addLiteral(segments, literal);
+        return new ODTemplate(msg, segments, uses, random);
+    }
+
+    private static void addLiteral(List<Segment> segments, StringBuilder literal) {
+        if (literal.length() == 0)
+            return;
+        segments.add(new Literal(literal.toString()));
+        literal.setLength(0);
+    }
+
+    /**
+     * Parse <a|b|c> (pick one of the options) or <1-4> / <1~4> (pick a number
+     * in the range).
+     *
+     * @return The selector, or null if there isn't one at this position.
+     */
+    private static Segment parseSelector(String msg, int start) {
+        int end = msg.indexOf('>', start + 1);
+        if (end < 0)
+            return null;
+        String inner = msg.substring(start + 1, end);
+        if (inner.indexOf('<') >= 0 || inner.isEmpty())
+            return null;
+
+        if (inner.indexOf('|') >= 0) {
+            if (inner.charAt(0) == '|')
+                return null;
+            String[] split = inner.split("\\|");
+            int filled = 0;
+            for (String option : split)
+                if (!option.isEmpty())
+                    filled++;
+            if (filled < 2)
+                return null;
+            ODTemplate[] options = new ODTemplate[split.length];
+            for (int i = 0; i < split.length; i++)
+                options[i] = parse(split[i]);
+            return new Choice(options);
+        }
+
+        if (inner.matches("[0-9]+[~-][0-9]+"))
+            return new Range(IntRange.parse(inner));
+        return null;
+    }
+
+    /**
+     * @return True if the template contains the given variable.
+     */
+    public boolean uses(Var var) {
+        return uses.contains(var);
+    }
+
+    /**
+     * @return True if rendering can give a different result to the original
+     *         string.
+     */
+    public boolean isDynamic() {
+        return random || !uses.isEmpty();
+    }
+
+    /**
+     * Render the template.
+     *
+     * @param vars
+     *            The variable values, can be null (only the random selectors
+     *            are replaced).
+     * @return The resulting string.
+     */
+    public String render(ODVariables vars) {
+        if (!isDynamic())
+            return source;
+        StringBuilder out = buffer.get();
+        out.setLength(0);
+        render(vars, out);
+        return out.toString();
+    }
+
+    public void render(ODVariables vars, StringBuilder out) {
+        for (Segment segment : segments)
+            segment.append(out, vars);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static abstract class Segment {
+        abstract void append(StringBuilder out, ODVariables vars);
+    }
+
+    private static class Literal extends Segment {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        void append(StringBuilder out, ODVariables vars) {
+            out.append(text);
+        }
+    }
+
+    private static class Variable extends Segment {
+        private final Var var;
+
+        Variable(Var var) {
+            this.var = var;
+        }
+
+        @Override
+        void append(StringBuilder out, ODVariables vars) {
+            String value = vars == null ? null : vars.get(var);
+            out.append(value == null ? var.token : value);
+        }
+    }
+
+    private static class Choice extends Segment {
+        private final ODTemplate[] options;
+
+        Choice(ODTemplate[] options) {
+            this.options = options;
+        }
+
+        @Override
+        void append(StringBuilder out, ODVariables vars) {
+            options[OtherDrops.rng.nextInt(options.length)].render(vars, out);
+        }
+    }
+
+    private static class Range extends Segment {
+        private final IntRange range;
+
+        Range(IntRange range) {
+            this.range = range;
+        }
+
+        @Override
+        void append(StringBuilder out, ODVariables vars) {
+            out.append(range.getRandomIn(OtherDrops.rng).intValue());
+        }
+    }
+}
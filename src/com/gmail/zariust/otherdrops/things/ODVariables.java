@@ -2,7 +2,9 @@ package com.gmail.zariust.otherdrops.things;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,86 +13,159 @@ import java.util.Map.Entry;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 
-import com.gmail.zariust.otherdrops.Log;
-import com.gmail.zariust.otherdrops.OtherDrops;
 import com.gmail.zariust.otherdrops.OtherDropsConfig;
-import com.gmail.zariust.otherdrops.options.IntRange;
 
 public class ODVariables {
-    Map<String, String> variables = new HashMap<String, String>();
+    /**
+     * The variables that can be used in messages, commands, lore, etc.
+     */
+    public enum Var {
+        TIME("%time"), DATE("%date"), DEATH_MESSAGE("%deathmessage"),
+        PLAYER("%p"), PLAYER_UPPER("%P"), VICTIM("%v"), DROP("%d"),
+        DROP_UPPER("%D"), TOOL("%t"), TOOL_UPPER("%T"),
+        DISPLAY_NAME("%displayname"), LORE_NAME("%lorename"),
+        QUANTITY("%q"), QUANTITY_UPPER("%Q"), LOC_X("%loc.x"),
+        LOC_Y("%loc.y"), LOC_Z("%loc.z"), LOC_WORLD("%loc.world"),
+        TARGET_NAME("%targetname");
+
+        final String               token;
+        // longest first, so that eg. %deathmessage isn't taken as %d
+        private static final Var[] byLength;
+        static {
+            byLength = values();
+            Arrays.sort(byLength, new Comparator<Var>() {
+                @Override
+                public int compare(Var a, Var b) {
+                    return b.token.length() - a.token.length();
+                }
+            });
+        }
+
+        private Var(String token) {
+            this.token = token;
+        }
+
+        /**
+         * @return The variable starting at the given position in msg, or null.
+         */
+        static Var match(String msg, int index) {
+            for (Var var : byLength)
+                if (msg.startsWith(var.token, index))
+                    return var;
+            return null;
+        }
+    }
+
+    private static final ThreadLocal<Map<String, SimpleDateFormat>> dateFormats = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+        @Override
+        protected Map<String, SimpleDateFormat> initialValue() {
+            return new HashMap<String, SimpleDateFormat>();
+        }
+    };
+
+    private final String[]      values = new String[Var.values().length];
+    private Map<String, String> custom;
 
     public ODVariables() {
-        variables.put("%time", new SimpleDateFormat(OtherDropsConfig.gTimeFormat).format(Calendar.getInstance().getTime()));
-        variables.put("%date", new SimpleDateFormat(OtherDropsConfig.gDateFormat).format(Calendar.getInstance().getTime()));
     }
 
-    public ODVariables setDeathMessage(String val) {
-        variables.put("%deathmessage", val);
+    private ODVariables set(Var var, String val) {
+        values[var.ordinal()] = val;
         return this;
     }
 
+    /**
+     * @return The value for a variable, or null if it hasn't been set.
+     */
+    public String get(Var var) {
+        String value = values[var.ordinal()];
+        if (value == null) {
+            // only worked out if a message actually uses them
+            if (var == Var.TIME)
+                value = formatNow(OtherDropsConfig.gTimeFormat);
+            else if (var == Var.DATE)
+                value = formatNow(OtherDropsConfig.gDateFormat);
+        }
+        return value;
+    }
+
+    private static String formatNow(String pattern) {
+        Map<String, SimpleDateFormat> formats = dateFormats.get();
+        SimpleDateFormat format = formats.get(pattern);
+        if (format == null) {
+            format = new SimpleDateFormat(pattern);
+            formats.put(pattern, format);
+        }
+        return format.format(new Date());
+    }
+
+    public ODVariables setDeathMessage(String val) {
+        return set(Var.DEATH_MESSAGE, val);
+    }
+
     public ODVariables setPlayerName(String val) {
-        variables.put("%p", val);
-        variables.put("%P", val.toUpperCase());
-        return this;
+        set(Var.PLAYER, val);
+        return set(Var.PLAYER_UPPER, val == null ? null : val.toUpperCase());
     }
 
     public ODVariables setVictimName(String val) {
-        variables.put("%v", val);
-        return this;
+        return set(Var.VICTIM, val);
     }
 
     public ODVariables setDropName(String val) {
-        variables.put("%d", val.replaceAll("[_-]", " ").toLowerCase());
-        variables.put("%D", val.replaceAll("[_-]", " ").toUpperCase());
-        return this;
+        val = val.replace('_', ' ').replace('-', ' ');
+        set(Var.DROP, val.toLowerCase());
+        return set(Var.DROP_UPPER, val.toUpperCase());
     }
 
     public ODVariables setToolName(String val) {
-        variables.put("%t", val.replaceAll("[_-]", " ").toLowerCase());
-        variables.put("%T", val.replaceAll("[_-]", " ").toUpperCase());
-        return this;
+        val = val.replace('_', ' ').replace('-', ' ');
+        set(Var.TOOL, val.toLowerCase());
+        return set(Var.TOOL_UPPER, val.toUpperCase());
     }
 
     public ODVariables setloreName(String val) {
-        variables.put("%displayname", val);
-        variables.put("%lorename", val);
-        return this;
+        set(Var.DISPLAY_NAME, val);
+        return set(Var.LORE_NAME, val);
     }
 
     public ODVariables setQuantity(String val) {
-        variables.put("%q", val);
-        variables.put("%Q", val);
-        return this;
+        set(Var.QUANTITY, val);
+        return set(Var.QUANTITY_UPPER, val);
     }
 
     public ODVariables setLocation(Location loc) {
         if (loc == null)
             return this;
-        variables.put("%loc.x", String.valueOf(loc.getX()));
-        variables.put("%loc.y", String.valueOf(loc.getY()));
-        variables.put("%loc.z", String.valueOf(loc.getZ()));
-        variables.put("%loc.world", loc.getWorld().getName());
-        return this;
+        set(Var.LOC_X, String.valueOf(loc.getX()));
+        set(Var.LOC_Y, String.valueOf(loc.getY()));
+        set(Var.LOC_Z, String.valueOf(loc.getZ()));
+        return set(Var.LOC_WORLD, loc.getWorld().getName());
     }
 
     public ODVariables setTargetName(String val) {
-        variables.put("%targetname", val);
-        return this;
+        return set(Var.TARGET_NAME, val);
     }
 
     public ODVariables custom(String key, String value) {
-        variables.put(key, value);
+        if (custom == null)
+            custom = new HashMap<String, String>();
+        custom.put(key, value);
         return this;
     }
 
     public String parse(String msg) {
-        msg = parseMultipleOptions(msg);
+        return parse(ODTemplate.compile(msg));
+    }
 
-        for (Entry<String, String> entrySet : variables.entrySet()) {
-            msg = msg.replaceAll(entrySet.getKey(), entrySet.getValue());
+    public String parse(ODTemplate template) {
+        if (template == null)
+            return null;
+        String msg = template.render(this);
+        if (custom != null) {
+            for (Entry<String, String> entrySet : custom.entrySet())
+                msg = msg.replace(entrySet.getKey(), entrySet.getValue());
         }
-
         return msg;
     }
 
@@ -137,40 +212,18 @@ public class ODVariables {
         if (line == null)
             return null;
 
-        return substituteColorCodes(line);
+        String parsed = substituteColorCodes(line);
+        ODTemplate.compile(parsed); // so it's ready for the first drop
+        return parsed;
     }
 
+    /**
+     * Replace any random selectors, eg. <sword|mace|dagger> of +<1-4> damage
+     * gives "sword of +1 damage" or "dagger of +3 damage", leaving any
+     * variables as they are.
+     */
     static String parseMultipleOptions(String msg) {
-        if (msg.contains("|")) {
-            // Select one of multiple options eg. <sword|mace|dagger> of +<1-4> damage =
-            // random results, e.g. "sword of +1 damage" or "dagger of +3 damage"
-
-            // Match expression is:
-            // * any 2 values separated by a pipe, followed by optional further values, all surrounded by angle brackets
-            // * e.g. <sword|mace> or <1|2|3>
-
-            msg = new ODMatch(msg).match("<(([^|<>]+?[|][^|<>]+?[|]*)([^|<>]+?[|]*)*?)>", new ODMatchRunner() {
-                @Override
-                public String runMatch(String matched) {
-                    Log.logInfo("MATCHED: "+matched);
-                    String[] split = matched.split("\\|");
-                    return split[OtherDrops.rng.nextInt(split.length)];
-                }
-            });
-        }
-
-        if (msg.contains("~") || msg.contains("-")) {
-            // Select one of a given range of numbers eg. (3~7) -> number
-            // between 3 & 7 (inclusive)
-            msg = new ODMatch(msg).match("<([0-9]+(~|-)[0-9]+)>", new ODMatchRunner() {
-                @Override
-                public String runMatch(String matched) {
-                    return IntRange.parse(matched).getRandomIn(OtherDrops.rng).toString();
-                }
-            });
-        }
-
-        return msg;
+        return ODTemplate.compile(msg).render(null);
     }
 
     private static String substituteColorCodes(String msg) {
@@ -0,0 +1,40 @@
+package com.gmail.zariust.common;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AliasTableTest {
+
+    @Test
+    public void testSampleDistribution() {
+        double[] weights = { 10, 0, 30, 60 };
+        AliasTable table = new AliasTable(weights);
+        Random rng = new Random(1234);
+        int[] counts = new int[weights.length];
+        int samples = 100000;
+        for (int i = 0; i < samples; i++)
+            counts[table.sample(rng)]++;
+
+        assertEquals(0, counts[1]);
+        assertEquals(0.1, (double) counts[0] / samples, 0.01);
+        assertEquals(0.3, (double) counts[2] / samples, 0.01);
+        assertEquals(0.6, (double) counts[3] / samples, 0.01);
+    }
+
+    @Test
+    public void testSingleWeight() {
+        AliasTable table = new AliasTable(new double[] { 0, 5 });
+        Random rng = new Random(1);
+        for (int i = 0; i < 1000; i++)
+            assertEquals(1, table.sample(rng));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoWeight() {
+        new AliasTable(new double[] { 0, 0 });
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.gmail.zariust.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.bukkit.entity.EntityType;
+import org.junit.Test;
+
+public class CommonEntityTest {
+
+    @Test
+    public void testCreatureEntityTypeNames() {
+        assertEquals(EntityType.CREEPER, CommonEntity.getCreatureEntityType("CREATURE_CREEPER"));
+        assertEquals(EntityType.PIG_ZOMBIE, CommonEntity.getCreatureEntityType("pig zombie@3"));
+        assertEquals(EntityType.PIG_ZOMBIE, CommonEntity.getCreatureEntityType("ZOMBIE_PIG"));
+        assertEquals(EntityType.MUSHROOM_COW, CommonEntity.getCreatureEntityType("mooshroom"));
+        // prefix match, only if there's just one match
+        assertEquals(EntityType.MAGMA_CUBE, CommonEntity.getCreatureEntityType(";magma"));
+        assertNull(CommonEntity.getCreatureEntityType(";s"));
+        // non-living entities need the ENTITY_ prefix
+        assertNull(CommonEntity.getCreatureEntityType("ARROW"));
+        assertEquals(EntityType.ARROW, CommonEntity.getCreatureEntityType("ENTITY_ARROW"));
+    }
+}
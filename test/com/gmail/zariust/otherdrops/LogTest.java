@@ -0,0 +1,17 @@
+package com.gmail.zariust.otherdrops;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LogTest {
+
+    @Test
+    public void testFormat() {
+        assertEquals("no placeholders", Log.format("no placeholders", "x"));
+        assertEquals("a=1, b=null", Log.format("a={}, b={}", 1, null));
+        assertEquals("[one] and {}", Log.format("[{}] and {}", "one"));
+        assertEquals("x y", Log.format("{} {}", "x", "y", "unused"));
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.gmail.zariust.otherdrops.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Test;
+
+import com.gmail.zariust.common.CMEnchantment;
+import com.gmail.zariust.otherdrops.AbstractTestingBase;
+import com.gmail.zariust.otherdrops.drop.ItemDrop;
+import com.gmail.zariust.otherdrops.options.IntRange;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+import com.gmail.zariust.otherdrops.subject.BlockTarget;
+import com.gmail.zariust.otherdrops.subject.PlayerSubject;
+
+public class DropRunnerTest extends AbstractTestingBase {
+
+    // A batched (explosion) drop only defers the spawning - whether it
+    // overrides the default drop has to be known while the event is running
+    @Test
+    public void testDeferredDropOverridesDefault() throws DropCreateException {
+        OccurredEvent event = createEvent();
+        DropRunner runner = new DropRunner(null, event, createDrop(100), null,
+                null, false);
+
+        List<Runnable> spawns = new ArrayList<Runnable>();
+        assertTrue(runner.performDrop(null, event.getLocation(), spawns));
+
+        assertEquals(1, spawns.size());
+        assertTrue(event.isOverrideDefault());
+        assertTrue(event.getReplaceBlockWith() != null);
+        assertEquals(Material.AIR, event.getReplaceBlockWith().getMaterial());
+    }
+
+    @Test
+    public void testDeferredDropFailedChance() throws DropCreateException {
+        OccurredEvent event = createEvent();
+        DropRunner runner = new DropRunner(null, event, createDrop(0), null,
+                null, false);
+
+        List<Runnable> spawns = new ArrayList<Runnable>();
+        assertFalse(runner.performDrop(null, event.getLocation(), spawns));
+
+        assertTrue(spawns.isEmpty());
+        assertFalse(event.isOverrideDefault());
+        assertTrue(event.getReplaceBlockWith() == null);
+    }
+
+    private OccurredEvent createEvent() throws DropCreateException {
+        BlockTarget block = new BlockTarget(Material.STONE, new Location(
+                CustomDropTest.testWorld, 0, 64, 0), (byte) 0);
+        return new OccurredEvent(block, Trigger.BREAK, new PlayerSubject(
+                (ItemStack) null, "tester"));
+    }
+
+    private SimpleDrop createDrop(double chance) {
+        ItemDrop dropped = new ItemDrop(new IntRange(1), Material.DIRT, chance,
+                new ArrayList<CMEnchantment>());
+        dropped.overrideDefault = true;
+        SimpleDrop drop = new SimpleDrop(new BlockTarget(Material.STONE),
+                Trigger.BREAK);
+        drop.setChance(100);
+        drop.setQuantity(1);
+        drop.setDropped(dropped);
+        return drop;
+    }
+}
@@ -0,0 +1,171 @@
+package com.gmail.zariust.otherdrops.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Test;
+
+import com.gmail.zariust.common.CMEnchantment;
+import com.gmail.zariust.otherdrops.AbstractTestingBase;
+import com.gmail.zariust.otherdrops.options.Time;
+import com.gmail.zariust.otherdrops.parameters.Trigger;
+import com.gmail.zariust.otherdrops.subject.Agent;
+import com.gmail.zariust.otherdrops.subject.BlockTarget;
+import com.gmail.zariust.otherdrops.subject.PlayerSubject;
+import com.gmail.zariust.otherdrops.subject.Target;
+import com.gmail.zariust.otherdrops.subject.ToolAgent;
+
+public class DropsIndexTest extends AbstractTestingBase {
+
+    private static final World testWorld   = CustomDropTest.testWorld;
+    private static final World secondWorld = CustomDropTest.secondWorld;
+
+    // The candidates from the index must contain every drop that a full scan
+    // (CustomDrop.matches on every drop) finds, in list order
+    @Test
+    public void testCandidatesMatchFullScan() {
+        Material[] targets = { Material.STONE, Material.DIRT };
+        Material[] tools = { Material.DIAMOND_PICKAXE, Material.IRON_PICKAXE,
+                Material.STICK, null };
+        World[] worlds = { testWorld, secondWorld };
+
+        for (Material target : targets) {
+            DropsList list = buildList(target);
+            for (Material tool : tools) {
+                for (World world : worlds) {
+                    OccurredEvent event = createEvent(target, tool, world);
+                    assertSameAsFullScan(list, event, target + " with " + tool
+                            + " in " + world.getName());
+                }
+            }
+        }
+    }
+
+    private void assertSameAsFullScan(DropsList list, OccurredEvent event,
+            String description) {
+        List<CustomDrop> expected = new ArrayList<CustomDrop>();
+        for (CustomDrop drop : list)
+            if (drop.matches(event))
+                expected.add(drop);
+
+        List<CustomDrop> actual = new ArrayList<CustomDrop>();
+        List<CustomDrop> candidates = new ArrayList<CustomDrop>();
+        for (CustomDrop drop : list.getCandidates(event)) {
+            candidates.add(drop);
+            if (drop.matches(event))
+                actual.add(drop);
+        }
+        assertEquals("Candidates for " + description, expected, actual);
+
+        // and the candidates themselves are in list order
+        List<CustomDrop> all = new ArrayList<CustomDrop>();
+        for (CustomDrop drop : list)
+            all.add(drop);
+        int last = -1;
+        for (CustomDrop drop : candidates) {
+            int pos = all.indexOf(drop);
+            assertTrue("Candidate order for " + description, pos > last);
+            last = pos;
+        }
+    }
+
+    private DropsList buildList(Material target) {
+        DropsList list = new DropsList();
+        // any tool, anywhere
+        list.add(createDrop(target, null, null, null));
+        list.add(createDrop(target, tools(Material.DIAMOND_PICKAXE, true),
+                null, null));
+        list.add(createDrop(target, tools(Material.IRON_PICKAXE, true), null,
+                null));
+        list.add(createDrop(target, tools(Material.DIAMOND_PICKAXE, true),
+                worlds(testWorld, true, false), null));
+        list.add(createDrop(target, null, worlds(secondWorld, true, false),
+                null));
+        // -TestWorld
+        list.add(createDrop(target, null, worlds(testWorld, false, true),
+                null));
+        Map<Agent, Boolean> pickaxes = tools(Material.DIAMOND_PICKAXE, true);
+        pickaxes.put(tool(Material.IRON_PICKAXE), true);
+        list.add(createDrop(target, pickaxes, null, null));
+        // only an exception, so never matches
+        list.add(createDrop(target, tools(Material.DIAMOND_PICKAXE, false),
+                null, null));
+        // the events happen at time 0 (day)
+        list.add(createDrop(target, null, null, times(Time.NIGHT)));
+        list.add(createDrop(target, tools(Material.IRON_PICKAXE, true),
+                worlds(testWorld, true, false), times(Time.DAY)));
+        list.add(createDrop(target, tools(Material.STICK, true), null, null));
+        list.add(createDrop(target, null, worlds(secondWorld, false, true),
+                times(Time.DAY)));
+        int size = 0;
+        for (@SuppressWarnings("unused")
+        CustomDrop drop : list)
+            size++;
+        assertTrue(size >= DropsList.MIN_INDEXED_SIZE);
+        list.sort(); // builds the index
+        return list;
+    }
+
+    private CustomDrop createDrop(Material target, Map<Agent, Boolean> tools,
+            Map<World, Boolean> worlds, Map<Time, Boolean> times) {
+        CustomDrop drop = new SimpleDrop(new BlockTarget(target), Trigger.BREAK);
+        drop.setChance(100);
+        drop.setTool(tools);
+        drop.setWorlds(worlds);
+        drop.setTime(times);
+        return drop;
+    }
+
+    private Map<Agent, Boolean> tools(Material tool, boolean include) {
+        Map<Agent, Boolean> tools = new HashMap<Agent, Boolean>();
+        tools.put(tool(tool), include);
+        return tools;
+    }
+
+    // as parsed from the config: no data or enchantments required
+    private ToolAgent tool(Material tool) {
+        return new ToolAgent(tool, null, new ArrayList<CMEnchantment>(), 1);
+    }
+
+    private Map<World, Boolean> worlds(World world, boolean include,
+            boolean all) {
+        Map<World, Boolean> worlds = new HashMap<World, Boolean>();
+        worlds.put(null, all);
+        worlds.put(world, include);
+        return worlds;
+    }
+
+    private Map<Time, Boolean> times(Time time) {
+        Map<Time, Boolean> times = new HashMap<Time, Boolean>();
+        times.put(time, true);
+        return times;
+    }
+
+    private OccurredEvent createEvent(Material target, final Material tool,
+            World world) {
+        Target block = new BlockTarget(target, new Location(world, 0, 64, 0),
+                (byte) 0);
+        // a player holding the tool (ItemStacks need a real server for their
+        // meta, so just report the material)
+        Agent player = new PlayerSubject((ItemStack) null, "tester") {
+            @Override
+            public Material getMaterial() {
+                return tool;
+            }
+        };
+        try {
+            return new OccurredEvent(block, Trigger.BREAK, player);
+        } catch (DropCreateException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
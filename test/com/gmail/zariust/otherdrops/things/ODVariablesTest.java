@@ -1,5 +1,6 @@
 package com.gmail.zariust.otherdrops.things;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -23,6 +24,17 @@ public class ODVariablesTest {
         testMultiTextChoice("<dagger|swords|snails> of +<1~6> damage", 19);
     }
 
+    @Test
+    public void testVariables() {
+        ODVariables vars = new ODVariables().setPlayerName("Steve")
+                .setDropName("DIAMOND_SWORD");
+        // unset variables are left alone, %deathmessage isn't read as %d
+        assertEquals("Steve (STEVE) got a diamond sword, %deathmessage %v",
+                vars.parse("%p (%P) got a %d, %deathmessage %v"));
+        assertEquals("<a> costs $5 for Steve", vars.parse("<a> costs $5 for %p"));
+        assertEquals("Steve", vars.parse("<%p|%p>"));
+    }
+
     private void testMultiTextChoice(String testVal, int lengthShouldBe) {
         System.out.println("Test: '" + testVal + "'");
         String result = ODVariables.parseMultipleOptions(testVal);